@@ -0,0 +1,452 @@
+package org.example;
+
+import org.example.io.JsonDataReader;
+import org.example.io.OrderIterator;
+import org.example.io.OutputWriter;
+import org.example.io.PlanExportFormat;
+import org.example.io.PlanJournal;
+import org.example.io.PlanWriter;
+import org.example.io.SolutionCacheFile;
+import org.example.io.SyntheticWorkloadGenerator;
+import org.example.io.WorkloadSpec;
+import org.example.server.PaymentServer;
+import org.example.service.BranchAndBoundSolver;
+import org.example.service.CachedSolution;
+import org.example.service.ClassGreedyOptimizer;
+import org.example.service.DualPriceOptimizer;
+import org.example.service.IncrementalOptimizer;
+import org.example.service.LazyGreedyOptimizer;
+import org.example.service.LocalSearchImprover;
+import org.example.service.OptimizationResult;
+import org.example.service.PaymentOptimizer;
+import org.example.service.PaymentSolver;
+import org.example.service.PipelinedPlanner;
+import org.example.service.PointsStrategy;
+import org.example.service.Scenario;
+import org.example.service.ScenarioBatch;
+import org.example.service.SpendingSummary;
+import org.example.service.TieredSolver;
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class App {
+
+    private static final String USAGE = "Użycie: java -jar <nazwa_pliku_jar> <ścieżka_do_orders.json> <ścieżka_do_paymentmethods.json> [--solver=greedy|exact|dual|lazy|classes|tiered] [--time-budget-ms=<ms>] [--exact-max-orders=<n>] [--parallel] [--points=smallest-first|knapsack] [--improve-ms=<ms> [--improve-threads=<n>]] [--read-threads=<n>] [--pipeline] [--scenarios=<plik>,<plik>...] [--harness] [--cache=<plik>] [--journal=<plik> [--resume] [--journal-sync=<n>]] [--export=<plik> --export-format=jsonl|csv|binary]";
+    private static final String SERVER_USAGE = "Użycie: java -jar <nazwa_pliku_jar> --server <ścieżka_do_paymentmethods.json> [--port=<port>] [--batch-window-ms=<ms>] [--max-batch-orders=<n>] [--parallel] [--points=smallest-first|knapsack] [--solver=greedy|exact|dual|lazy|classes|tiered] [--time-budget-ms=<ms>] [--exact-max-orders=<n>]";
+    private static final String GENERATE_USAGE = "Użycie: java -jar <nazwa_pliku_jar> --generate <katalog> [--orders=<n>] [--seed=<n>] [--cards=<n>] [--value-distribution=uniform|log_normal] [--min-value=<kwota>] [--max-value=<kwota>] [--promotion-probability=<0-1>] [--max-card-discount=<%>] [--points-discount=<%>] [--points-tightness=<udział>] [--card-tightness=<udział>]";
+
+    private static final Set<String> SOLVER_OPTIONS = Set.of("solver", "time-budget-ms", "exact-max-orders", "parallel", "points");
+    private static final Set<String> OPTIONS = union(SOLVER_OPTIONS, Set.of("improve-ms", "improve-threads", "read-threads",
+            "pipeline", "scenarios", "harness", "cache", "journal", "resume", "journal-sync", "export", "export-format"));
+    private static final Set<String> SERVER_OPTIONS = union(SOLVER_OPTIONS, Set.of("server", "port", "batch-window-ms", "max-batch-orders"));
+    private static final Set<String> GENERATE_OPTIONS = Set.of("generate", "orders", "seed", "cards", "value-distribution", "min-value",
+            "max-value", "promotion-probability", "max-card-discount", "points-discount", "points-tightness", "card-tightness");
+
+    public static void main(String[] args) {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.has("server")) {
+            rejectUnknownOptions(options, SERVER_OPTIONS, SERVER_USAGE);
+            runServer(options);
+            return;
+        }
+        if (options.has("generate")) {
+            rejectUnknownOptions(options, GENERATE_OPTIONS, GENERATE_USAGE);
+            generateWorkload(options);
+            return;
+        }
+        rejectUnknownOptions(options, OPTIONS, USAGE);
+        rejectOutOfRange(options, "journal-sync", 1, Integer.MAX_VALUE, USAGE);
+        if (options.getPositional().size() < 2) {
+            System.err.println("Błąd: Należy podać dwie ścieżki do plików jako argumenty.");
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        String ordersFilePath = options.getPositional().get(0);
+        String paymentMethodsFilePath = options.getPositional().get(1);
+
+        JsonDataReader dataReader = new JsonDataReader();
+        OutputWriter outputWriter = new OutputWriter();
+
+        try {
+            if (options.has("harness")) {
+                new ScaleHarness().run(ordersFilePath, paymentMethodsFilePath, options);
+                return;
+            }
+
+            List<PaymentMethod> allPaymentMethods = dataReader.readPaymentMethods(paymentMethodsFilePath);
+
+            if (options.has("pipeline")) {
+                outputWriter.printResultsToConsole(runPipeline(dataReader, ordersFilePath, allPaymentMethods, options).toBigDecimals());
+                System.out.println("\nProcess finished successfully.");
+                return;
+            }
+
+            List<Order> ordersToProcess = readOrders(dataReader, ordersFilePath, options);
+
+            if (options.has("scenarios")) {
+                compareScenarios(dataReader, ordersToProcess, paymentMethodsFilePath, allPaymentMethods, options, outputWriter);
+                return;
+            }
+
+
+            PaymentOptimizer optimizer = new PaymentOptimizer(allPaymentMethods, options.has("parallel"), pointsStrategy(options));
+
+            Map<String, BigDecimal> spendingSummary = options.has("export")
+                    ? optimizeAndExport(optimizer, allPaymentMethods, ordersToProcess, options).toBigDecimals()
+                    : optimizer.calculateSpendingSummary(optimizeOrReuse(optimizer, allPaymentMethods, ordersToProcess, options));
+
+            outputWriter.printResultsToConsole(spendingSummary);
+
+            System.out.println("\nProcess finished successfully.");
+
+        } catch (IOException e) {
+            System.err.println("An I/O error occurred: " + e.getMessage());
+            e.printStackTrace();
+        } catch (UncheckedIOException e) {
+            System.err.println("An I/O error occurred: " + e.getCause().getMessage());
+            e.printStackTrace();
+        } catch (IllegalArgumentException e) {
+            // options that do not go together or have bad values, reported like unknown ones
+            System.err.println("Błąd: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("An unexpected error occurred: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // a misspelt option would otherwise be silently ignored
+    private static void rejectUnknownOptions(CommandLineOptions options, Set<String> known, String usage) {
+        List<String> unknown = options.unknownOptions(known);
+        if (!unknown.isEmpty()) {
+            System.err.println("Błąd: Nieznana opcja: --" + String.join(", --", unknown));
+            System.err.println(usage);
+            System.exit(1);
+        }
+    }
+
+    // checked before any file is read, so a bad value does not surface only after a long load
+    private static void rejectOutOfRange(CommandLineOptions options, String name, long min, long max, String usage) {
+        if (!options.has(name)) return;
+        boolean inRange;
+        try {
+            long value = options.getLong(name, min);
+            inRange = value >= min && value <= max;
+        } catch (IllegalArgumentException e) {
+            inRange = false;
+        }
+        if (!inRange) {
+            System.err.println("Błąd: Opcja --" + name + " musi być liczbą od " + min + " do " + max + ", podano: " + options.get(name, ""));
+            System.err.println(usage);
+            System.exit(1);
+        }
+    }
+
+    private static Set<String> union(Set<String> first, Set<String> second) {
+        Set<String> union = new HashSet<>(first);
+        union.addAll(second);
+        return Set.copyOf(union);
+    }
+
+    // the positional payment methods file is the first column, every --scenarios file another one
+    private static void compareScenarios(JsonDataReader dataReader, List<Order> orders, String paymentMethodsFilePath,
+                                         List<PaymentMethod> paymentMethods, CommandLineOptions options,
+                                         OutputWriter outputWriter) throws IOException {
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario(Path.of(paymentMethodsFilePath).getFileName().toString(), paymentMethods));
+        for (String file : options.get("scenarios", "").split(",")) {
+            if (file.isBlank()) continue;
+            scenarios.add(new Scenario(Path.of(file).getFileName().toString(), dataReader.readPaymentMethods(file)));
+        }
+        outputWriter.printScenarioComparison(new ScenarioBatch(orders, pointsStrategy(options)).run(scenarios));
+    }
+
+    static PointsStrategy pointsStrategy(CommandLineOptions options) {
+        return switch (options.get("points", "smallest-first")) {
+            case "smallest-first" -> PointsStrategy.SMALLEST_FIRST;
+            case "knapsack" -> PointsStrategy.KNAPSACK;
+            default -> throw new IllegalArgumentException("Unknown points strategy: " + options.get("points", ""));
+        };
+    }
+
+    static List<Order> readOrders(JsonDataReader dataReader, String ordersFilePath, CommandLineOptions options) throws IOException {
+        if (options.has("read-threads")) {
+            return dataReader.readOrdersParallel(ordersFilePath, (int) options.getLong("read-threads", 1));
+        }
+        try (Stream<Order> orders = dataReader.streamOrders(ordersFilePath)) {
+            return orders.toList();
+        }
+    }
+
+    private static void runServer(CommandLineOptions options) {
+        if (options.getPositional().isEmpty()) {
+            System.err.println("Błąd: W trybie serwera należy podać ścieżkę do pliku z metodami płatności.");
+            System.err.println(SERVER_USAGE);
+            System.exit(1);
+        }
+
+        try {
+            List<PaymentMethod> allPaymentMethods = new JsonDataReader().readPaymentMethods(options.getPositional().get(0));
+            PaymentOptimizer optimizer = new PaymentOptimizer(allPaymentMethods, options.has("parallel"), pointsStrategy(options));
+            PaymentServer server = new PaymentServer(
+                    solver(optimizer, options),
+                    (int) options.getLong("port", PaymentServer.DEFAULT_PORT),
+                    Duration.ofMillis(options.getLong("batch-window-ms", PaymentServer.DEFAULT_BATCH_WINDOW.toMillis())),
+                    (int) options.getLong("max-batch-orders", PaymentServer.DEFAULT_MAX_BATCH_ORDERS));
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            server.start();
+            System.out.println("Listening on http://localhost:" + server.getPort() + "/optimize");
+        } catch (IOException e) {
+            System.err.println("An I/O error occurred: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static void generateWorkload(CommandLineOptions options) {
+        if (options.getPositional().isEmpty()) {
+            System.err.println("Błąd: Należy podać katalog, w którym zostaną zapisane wygenerowane pliki.");
+            System.err.println(GENERATE_USAGE);
+            System.exit(1);
+        }
+
+        WorkloadSpec defaults = WorkloadSpec.defaults();
+        WorkloadSpec spec = defaults
+                .withSeed(options.getLong("seed", defaults.getSeed()))
+                .withOrderCount((int) options.getLong("orders", defaults.getOrderCount()))
+                .withCardCount((int) options.getLong("cards", defaults.getCardCount()))
+                .withValueDistribution(WorkloadSpec.ValueDistribution.valueOf(
+                        options.get("value-distribution", defaults.getValueDistribution().name()).toUpperCase()))
+                .withMinOrderValue(new BigDecimal(options.get("min-value", defaults.getMinOrderValue().toPlainString())))
+                .withMaxOrderValue(new BigDecimal(options.get("max-value", defaults.getMaxOrderValue().toPlainString())))
+                .withPromotionProbability(options.getDouble("promotion-probability", defaults.getPromotionProbability()))
+                .withMaxCardDiscountPercent((int) options.getLong("max-card-discount", defaults.getMaxCardDiscountPercent()))
+                .withPointsDiscountPercent((int) options.getLong("points-discount", defaults.getPointsDiscountPercent()))
+                .withPointsTightness(options.getDouble("points-tightness", defaults.getPointsTightness()))
+                .withCardTightness(options.getDouble("card-tightness", defaults.getCardTightness()));
+
+        try {
+            Path directory = Files.createDirectories(Path.of(options.getPositional().get(0)));
+            long totalCents = new SyntheticWorkloadGenerator().generate(spec, directory);
+            System.out.println("Generated " + spec.getOrderCount() + " orders worth " + BigDecimal.valueOf(totalCents, 2).toPlainString()
+                    + " in " + directory.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("An I/O error occurred: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static List<PaymentPlan> optimizeOrReuse(PaymentOptimizer optimizer, List<PaymentMethod> methods,
+                                                     List<Order> orders, CommandLineOptions options) throws IOException {
+        if (options.has("journal")) {
+            return optimizeWithJournal(optimizer, orders, options);
+        }
+        return options.has("cache")
+                ? optimizeWithCache(optimizer, methods, orders, options)
+                : optimize(optimizer, orders, options);
+    }
+
+    // the greedy passes hand every plan to the writer and the summary as soon as it is chosen, and
+    // no list of all plans is kept; other solvers (and cached runs) only have the plans at the end,
+    // so those are written afterwards
+    private static SpendingSummary optimizeAndExport(PaymentOptimizer optimizer, List<PaymentMethod> methods,
+                                                     List<Order> orders, CommandLineOptions options) throws IOException {
+        PlanExportFormat format = PlanExportFormat.parse(options.get("export-format", "jsonl"));
+        SpendingSummary summary = new SpendingSummary();
+        try (PlanWriter writer = PlanWriter.open(Path.of(options.get("export", "")), format)) {
+            if ("greedy".equals(options.get("solver", "greedy")) && !options.has("cache") && !options.has("improve-ms") && !options.has("journal")) {
+                optimizer.planPayments(orders, plan -> {
+                    try {
+                        writer.write(plan);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    summary.add(plan);
+                });
+                return summary;
+            }
+            for (PaymentPlan plan : optimizeOrReuse(optimizer, methods, orders, options)) {
+                writer.write(plan);
+                summary.add(plan);
+            }
+            return summary;
+        }
+    }
+
+    // orders are planned as they are read and the plans written as they are planned, so the whole
+    // run keeps only a few batches in memory; --export is optional, the summary is printed either way
+    private static SpendingSummary runPipeline(JsonDataReader dataReader, String ordersFilePath,
+                                               List<PaymentMethod> methods, CommandLineOptions options) throws IOException {
+        for (String option : List.of("solver", "parallel", "points", "improve-ms", "read-threads", "scenarios", "cache", "journal", "resume", "journal-sync")) {
+            if (options.has(option)) {
+                throw new IllegalArgumentException("--pipeline plans orders in arrival order and cannot be combined with --" + option);
+            }
+        }
+        PipelinedPlanner planner = new PipelinedPlanner(methods);
+        try (OrderIterator orders = dataReader.openOrders(ordersFilePath)) {
+            if (!options.has("export")) {
+                return planner.run(orders, plan -> { });
+            }
+            PlanExportFormat format = PlanExportFormat.parse(options.get("export-format", "jsonl"));
+            try (PlanWriter writer = PlanWriter.open(Path.of(options.get("export", "")), format)) {
+                return planner.run(orders, plan -> {
+                    try {
+                        writer.write(plan);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+    }
+
+    // every plan the greedy passes commit goes to the journal; with --resume the plans of a run that
+    // died are replayed first and only the orders they do not cover are planned, against the limits
+    // they left. Limits only shrink during a run, so the passes skip nothing they would have taken
+    // and the result is the one the uninterrupted run would have had (not so with --points=knapsack,
+    // which decides for all orders still open at once)
+    private static List<PaymentPlan> optimizeWithJournal(PaymentOptimizer optimizer, List<Order> orders, CommandLineOptions options) throws IOException {
+        if (!"greedy".equals(options.get("solver", "greedy")) || options.has("cache") || options.has("improve-ms")) {
+            throw new IllegalArgumentException("--journal works only with the greedy solver, without --cache or --improve-ms");
+        }
+        Path path = Path.of(options.get("journal", ""));
+        // within 1..Integer.MAX_VALUE, checked by main
+        int syncInterval = Math.toIntExact(options.getLong("journal-sync", PlanJournal.DEFAULT_SYNC_INTERVAL));
+        try (PlanJournal journal = options.has("resume")
+                ? PlanJournal.resume(path, optimizer.getRegistry(), orders, syncInterval)
+                : PlanJournal.create(path, optimizer.getRegistry(), orders, syncInterval)) {
+            List<PaymentPlan> plans = new ArrayList<>(journal.getReplayedPlans());
+            List<Order> unplanned = journal.unplannedOrders(orders);
+            if (!plans.isEmpty()) {
+                System.err.println("Resuming from " + path + ": " + plans.size() + " plans replayed, " + unplanned.size() + " orders left");
+            }
+            plans.addAll(optimizer.optimizePayments(unplanned, journal.remainingLimits(), plan -> {
+                try {
+                    journal.append(plan);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            return plans;
+        }
+    }
+
+    // unchanged inputs reuse the cached plans, otherwise only what the change touches is re-optimized;
+    // the cache is rewritten after every run
+    private static List<PaymentPlan> optimizeWithCache(PaymentOptimizer optimizer, List<PaymentMethod> methods,
+                                                       List<Order> orders, CommandLineOptions options) throws IOException {
+        if (!"greedy".equals(options.get("solver", "greedy")) || options.has("improve-ms")) {
+            throw new IllegalArgumentException("--cache works only with the greedy solver, without --improve-ms");
+        }
+        Path cachePath = Path.of(options.get("cache", ""));
+        SolutionCacheFile cacheFile = new SolutionCacheFile();
+
+        Optional<CachedSolution> cached;
+        try {
+            cached = cacheFile.read(cachePath);
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring unreadable cache " + cachePath + ": " + e.getMessage());
+            cached = Optional.empty();
+        }
+        // plans chosen by the other points strategy are no base for an incremental run either
+        if (cached.isPresent() && cached.get().getPointsStrategy() != optimizer.getPointsStrategy()) {
+            cached = Optional.empty();
+        }
+        if (cached.isPresent() && cached.get().matches(methods, orders, optimizer.getPointsStrategy())) {
+            return cached.get().getPlans();
+        }
+
+        List<PaymentPlan> plans = cached.isPresent()
+                ? new IncrementalOptimizer(optimizer).reoptimize(cached.get(), orders).getPlans()
+                : optimizer.optimizePayments(orders);
+        cacheFile.write(cachePath, new CachedSolution(methods, orders, plans, optimizer.getPointsStrategy()));
+        return plans;
+    }
+
+    static List<PaymentPlan> optimize(PaymentOptimizer optimizer, List<Order> orders, CommandLineOptions options) {
+        List<PaymentPlan> plans = solver(optimizer, options).optimizePayments(orders);
+        return options.has("improve-ms") ? improve(optimizer, orders, plans, options) : plans;
+    }
+
+    // the --solver choice; every solver works on the registry of the greedy optimizer
+    static PaymentSolver solver(PaymentOptimizer optimizer, CommandLineOptions options) {
+        return switch (options.get("solver", "greedy")) {
+            case "greedy" -> optimizer;
+            case "exact" -> orders -> solveExactly(optimizer, orders, options);
+            case "dual" -> new DualPriceOptimizer(optimizer.getRegistry());
+            case "lazy" -> new LazyGreedyOptimizer(optimizer.getRegistry());
+            case "classes" -> new ClassGreedyOptimizer(optimizer.getRegistry(), pointsStrategy(options));
+            case "tiered" -> orders -> solveTiered(optimizer, orders, options);
+            default -> throw new IllegalArgumentException("Unknown solver: " + options.get("solver", ""));
+        };
+    }
+
+    // local search from the solver's plans for --improve-ms, one worker per core unless --improve-threads says otherwise
+    private static List<PaymentPlan> improve(PaymentOptimizer optimizer, List<Order> orders, List<PaymentPlan> plans, CommandLineOptions options) {
+        int workers = (int) options.getLong("improve-threads", Runtime.getRuntime().availableProcessors());
+        Duration budget = Duration.ofMillis(options.getLong("improve-ms", LocalSearchImprover.DEFAULT_TIME_BUDGET.toMillis()));
+        long before = plans.stream().mapToLong(PaymentPlan::getDiscountCents).sum();
+        OptimizationResult result = new LocalSearchImprover(optimizer.getRegistry(), workers, LocalSearchImprover.DEFAULT_SEED).improve(orders, plans, budget);
+
+        System.err.printf("Local search: discount %s -> %s after %d moves%n",
+                BigDecimal.valueOf(before, 2).toPlainString(),
+                BigDecimal.valueOf(result.getTotalDiscountCents(), 2).toPlainString(),
+                result.getExploredNodes());
+        // with unpaid orders the bound is in units of the unpaid penalty and says little
+        if (result.getUnpaidOrders() > 0) {
+            System.err.println("Warning: " + result.getUnpaidOrders() + " orders could not be paid within the limits.");
+        } else if (!result.isOptimal()) {
+            System.err.printf("Optimality gap %s (%.4f%%)%n",
+                    BigDecimal.valueOf(result.getOptimalityGapCents(), 2).toPlainString(), result.getRelativeGap() * 100);
+        }
+        return result.getPlans();
+    }
+
+    // --time-budget-ms is the latency budget here: the tier is chosen from it and the batch size
+    private static List<PaymentPlan> solveTiered(PaymentOptimizer optimizer, List<Order> orders, CommandLineOptions options) {
+        TieredSolver solver = tieredSolver(optimizer, options);
+        long start = System.nanoTime();
+        List<PaymentPlan> plans = solver.optimizePayments(orders);
+        System.err.printf("Tiered solver: %s tier, plans from %s after %d ms%n",
+                solver.tierFor(orders.size()).name().toLowerCase(), solver.getLastWinner(), (System.nanoTime() - start) / 1_000_000);
+        return plans;
+    }
+
+    private static TieredSolver tieredSolver(PaymentOptimizer optimizer, CommandLineOptions options) {
+        return new TieredSolver(optimizer,
+                Duration.ofMillis(options.getLong("time-budget-ms", TieredSolver.DEFAULT_LATENCY_BUDGET.toMillis())),
+                (int) options.getLong("exact-max-orders", TieredSolver.DEFAULT_EXACT_MAX_ORDERS));
+    }
+
+    private static List<PaymentPlan> solveExactly(PaymentOptimizer optimizer, List<Order> orders, CommandLineOptions options) {
+        Duration budget = Duration.ofMillis(options.getLong("time-budget-ms", BranchAndBoundSolver.DEFAULT_TIME_BUDGET.toMillis()));
+        OptimizationResult result = new BranchAndBoundSolver(optimizer.getRegistry()).solve(orders, budget);
+
+        // with unpaid orders the bound is in units of the unpaid penalty and says little
+        if (result.getUnpaidOrders() > 0) {
+            System.err.println("Warning: " + result.getUnpaidOrders() + " orders could not be paid within the limits.");
+        } else if (!result.isOptimal()) {
+            System.err.printf("Time budget exhausted after %d nodes; optimality gap %s (%.4f%%)%n",
+                    result.getExploredNodes(),
+                    BigDecimal.valueOf(result.getOptimalityGapCents(), 2).toPlainString(),
+                    result.getRelativeGap() * 100);
+        }
+        return result.getPlans();
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Positional arguments plus optional --name=value / --flag switches.
+public class CommandLineOptions {
+
+    private final List<String> positional = new ArrayList<>();
+    private final Map<String, String> options = new LinkedHashMap<>();
+
+    public CommandLineOptions(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int separator = arg.indexOf('=');
+                if (separator < 0) {
+                    options.put(arg.substring(2), "true");
+                } else {
+                    options.put(arg.substring(2, separator), arg.substring(separator + 1));
+                }
+            } else {
+                positional.add(arg);
+            }
+        }
+    }
+
+    public List<String> getPositional() {
+        return positional;
+    }
+
+    // options given on the command line that are not among the known ones, in the order given
+    public List<String> unknownOptions(Set<String> known) {
+        return options.keySet().stream().filter(name -> !known.contains(name)).toList();
+    }
+
+    public boolean has(String name) {
+        return options.containsKey(name);
+    }
+
+    public String get(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    public long getLong(String name, long defaultValue) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " expects a number, got: " + value, e);
+        }
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " expects a number, got: " + value, e);
+        }
+    }
+}
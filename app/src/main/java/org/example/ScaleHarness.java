@@ -0,0 +1,133 @@
+package org.example;
+
+import org.example.io.JsonDataReader;
+import org.example.io.OutputWriter;
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+import org.example.service.OptimizerMetrics;
+import org.example.service.PaymentMethodRegistry;
+import org.example.service.PaymentOptimizer;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+// Runs the App pipeline (read -> optimizePayments -> calculateSpendingSummary -> OutputWriter)
+// once and reports wall time, peak heap and GC activity of every phase.
+public class ScaleHarness {
+
+    private final List<PhaseReport> phases = new ArrayList<>();
+
+    public void run(String ordersFilePath, String paymentMethodsFilePath, CommandLineOptions options) throws Exception {
+        JsonDataReader dataReader = new JsonDataReader();
+        OutputWriter outputWriter = new OutputWriter();
+
+        List<PaymentMethod> allPaymentMethods = phase("read payment methods", () -> dataReader.readPaymentMethods(paymentMethodsFilePath));
+        List<Order> orders = phase("read orders", () -> App.readOrders(dataReader, ordersFilePath, options));
+        PaymentOptimizer optimizer = new PaymentOptimizer(allPaymentMethods, options.has("parallel"), App.pointsStrategy(options));
+        List<PaymentPlan> plans = phase("optimize", () -> App.optimize(optimizer, orders, options));
+        Map<String, BigDecimal> summary = phase("spending summary", () -> optimizer.calculateSpendingSummary(plans));
+        phase("output", () -> {
+            outputWriter.printResultsToConsole(summary);
+            return null;
+        });
+
+        printReport(orders, plans);
+        // only the greedy passes are instrumented; other solvers (the tiered one runs the greedy
+        // next to its search) may leave metrics that do not describe the plans above
+        boolean greedyPlans = "greedy".equals(options.get("solver", "greedy")) && !options.has("improve-ms");
+        if (greedyPlans && optimizer.getLastMetrics() != null) {
+            printMetrics(optimizer.getLastMetrics(), optimizer.getRegistry());
+        }
+    }
+
+    private <T> T phase(String name, Callable<T> body) throws Exception {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+
+        long start = System.nanoTime();
+        T result = body.call();
+        long elapsed = System.nanoTime() - start;
+
+        // sum of per-pool peaks: an upper bound, pools do not peak at the same moment
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        phases.add(new PhaseReport(name, elapsed, peakHeap, gcCount() - gcCount, gcMillis() - gcMillis));
+        return result;
+    }
+
+    private void printReport(List<Order> orders, List<PaymentPlan> plans) {
+        long totalNanos = phases.stream().mapToLong(phase -> phase.nanos).sum();
+        long discountCents = plans.stream().mapToLong(PaymentPlan::getDiscountCents).sum();
+        PhaseReport optimize = phases.stream().filter(phase -> phase.name.equals("optimize")).findFirst().orElseThrow();
+
+        System.out.println();
+        System.out.printf("%-22s %12s %14s %10s %12s%n", "phase", "wall ms", "peak heap MB", "GC count", "GC time ms");
+        for (PhaseReport phase : phases) {
+            System.out.printf("%-22s %12.1f %14.1f %10d %12d%n",
+                    phase.name, phase.nanos / 1e6, phase.peakHeapBytes / 1048576.0, phase.gcCount, phase.gcMillis);
+        }
+        System.out.printf("%-22s %12.1f%n", "total", totalNanos / 1e6);
+        System.out.println();
+        System.out.printf("orders:                %d (%d paid)%n", orders.size(), plans.size());
+        System.out.printf("orders/sec end-to-end: %.0f%n", orders.size() / (totalNanos / 1e9));
+        System.out.printf("orders/sec optimize:   %.0f%n", orders.size() / (optimize.nanos / 1e9));
+        System.out.printf("total discount:        %s%n", BigDecimal.valueOf(discountCents, 2).toPlainString());
+    }
+
+    private void printMetrics(OptimizerMetrics metrics, PaymentMethodRegistry registry) {
+        System.out.println();
+        System.out.printf("%-22s %12s %10s%n", "optimizer pass", "wall ms", "paid");
+        System.out.printf("%-22s %12.1f %10d%n", "card promotion", metrics.getPromotionPassNanos() / 1e6, metrics.getPromotionPassPaid());
+        System.out.printf("%-22s %12.1f %10d%n", "points", metrics.getPointsPassNanos() / 1e6, metrics.getPointsPassPaid());
+        System.out.printf("%-22s %12.1f %10d%n", "remaining orders", metrics.getRemainingPassNanos() / 1e6, metrics.getRemainingPassPaid());
+        System.out.printf("unpaid orders:         %d%n", metrics.getUnpaidOrders());
+        System.out.printf("candidates generated:  %d%n", metrics.getCandidatesGenerated());
+        metrics.getRejectedByCheck().forEach((check, count) -> {
+            if (count > 0) System.out.printf("rejected %-28s %d%n", check + ":", count);
+        });
+        for (int method = 0; method < registry.size(); method++) {
+            String id = registry.idOf(method);
+            System.out.printf("limit used %-10s %6.1f%%%n", id + ":", metrics.getUtilisation(id) * 100);
+        }
+    }
+
+    // collectors that do not track counts or times report -1
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(count -> count > 0).sum();
+    }
+
+    // collection time as the MXBeans account it; concurrent collectors count work done next to the
+    // application too, so this is not the time the application was paused
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(time -> time > 0).sum();
+    }
+
+    private static final class PhaseReport {
+        private final String name;
+        private final long nanos;
+        private final long peakHeapBytes;
+        private final long gcCount;
+        private final long gcMillis;
+
+        PhaseReport(String name, long nanos, long peakHeapBytes, long gcCount, long gcMillis) {
+            this.name = name;
+            this.nanos = nanos;
+            this.peakHeapBytes = peakHeapBytes;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+    }
+}
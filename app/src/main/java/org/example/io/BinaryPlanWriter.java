@@ -0,0 +1,60 @@
+package org.example.io;
+
+import org.example.model.PaymentPlan;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+// Big-endian records after an 8-byte header (magic "PPL1", format version):
+//   u16 orderId length, orderId UTF-8, u16 paymentMethodId length, paymentMethodId UTF-8,
+//   i64 totalOrderValue, pointsAmount, cashAmount, discount, finalAmount (all in cents)
+public class BinaryPlanWriter extends PlanWriter {
+
+    public static final int MAGIC = 0x50504C31;
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int AMOUNTS_BYTES = 5 * Long.BYTES;
+    private static final int MAX_ID_BYTES = 0xFFFF;
+
+    public BinaryPlanWriter(Path path, int bufferSize) throws IOException {
+        super(path, bufferSize);
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+    }
+
+    @Override
+    protected void encode(PaymentPlan plan) throws IOException {
+        putId(plan.getOrderId());
+        putId(plan.getPaymentMethodId());
+        ensureRemaining(AMOUNTS_BYTES);
+        buffer.putLong(plan.getTotalOrderValueCents());
+        buffer.putLong(plan.getPointsAmountCents());
+        buffer.putLong(plan.getCashAmountCents());
+        buffer.putLong(plan.getDiscountCents());
+        buffer.putLong(plan.getFinalAmountCents());
+    }
+
+    private void putId(String id) throws IOException {
+        if (isAscii(id)) {
+            checkLength(id, id.length());
+            ensureRemaining(Short.BYTES + id.length());
+            buffer.putShort((short) id.length());
+            for (int i = 0; i < id.length(); i++) {
+                buffer.put((byte) id.charAt(i));
+            }
+        } else {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            checkLength(id, bytes.length);
+            ensureRemaining(Short.BYTES + bytes.length);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private void checkLength(String id, int bytes) {
+        if (bytes > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Id longer than " + MAX_ID_BYTES + " bytes: " + id.substring(0, 32) + "...");
+        }
+    }
+}
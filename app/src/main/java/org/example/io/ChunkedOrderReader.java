@@ -0,0 +1,262 @@
+package org.example.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.example.model.Order;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Parses one orders.json array on several threads. A single pass over the memory-mapped file
+// tracks nesting and strings only, and cuts it at the commas between top-level elements; every
+// chunk is then mapped on its own and read by an OrderIterator as "[" + chunk + "]". The byte
+// scan is several times faster than parsing, so it does not limit the speed-up.
+class ChunkedOrderReader {
+
+    // one mapping may not exceed 2 GiB, so larger files are scanned and cut in windows
+    private static final long MAX_MAPPING_BYTES = 1L << 30;
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_END = {']'};
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final JsonFactory jsonFactory;
+    private final int threads;
+    private final long minChunkBytes;
+
+    ChunkedOrderReader(JsonFactory jsonFactory, int threads) {
+        this(jsonFactory, threads, MIN_CHUNK_BYTES);
+    }
+
+    // smaller chunks than the default let small files be cut as well, e.g. in tests
+    ChunkedOrderReader(JsonFactory jsonFactory, int threads, long minChunkBytes) {
+        if (threads < 1 || minChunkBytes < 1) {
+            throw new IllegalArgumentException("Thread count and chunk size must be positive, got: " + threads + ", " + minChunkBytes);
+        }
+        this.jsonFactory = jsonFactory;
+        this.threads = threads;
+        this.minChunkBytes = minChunkBytes;
+    }
+
+    List<Order> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkBytes = Math.min(MAX_MAPPING_BYTES, Math.max(minChunkBytes, size / ((long) threads * CHUNKS_PER_THREAD)));
+            List<long[]> chunks = split(channel, size, chunkBytes);
+            if (chunks.isEmpty()) return new ArrayList<>();
+
+            ExecutorService workers = Executors.newFixedThreadPool(Math.min(threads, chunks.size()));
+            try {
+                List<Future<List<Order>>> parsed = new ArrayList<>(chunks.size());
+                for (long[] chunk : chunks) {
+                    parsed.add(workers.submit(parseTask(channel, chunk[0], chunk[1])));
+                }
+                List<List<Order>> results = new ArrayList<>(chunks.size());
+                int total = 0;
+                for (Future<List<Order>> future : parsed) {
+                    List<Order> orders = await(future);
+                    results.add(orders);
+                    total += orders.size();
+                }
+                List<Order> merged = new ArrayList<>(total);
+                results.forEach(merged::addAll);
+                return merged;
+            } finally {
+                workers.shutdownNow();
+            }
+        }
+    }
+
+    // [start, end) byte ranges of whole top-level elements, in file order
+    private List<long[]> split(FileChannel channel, long size, long chunkBytes) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        // a '}' closed a top-level element and the next comma may end the chunk
+        boolean elementClosed = false;
+        // a chunk was cut at a comma, so another element has to follow
+        boolean elementExpected = false;
+        long chunkStart = -1;
+        long closedAt = -1;
+
+        for (long windowStart = 0; windowStart < size && closedAt < 0; windowStart += MAX_MAPPING_BYTES) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(MAX_MAPPING_BYTES, size - windowStart));
+            int limit = window.limit();
+            for (int i = 0; i < limit; i++) {
+                byte b = window.get(i);
+                long position = windowStart + i;
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+                if (depth == 0) {
+                    if (isWhitespace(b) || position < UTF8_BOM.length && b == UTF8_BOM[(int) position]) continue;
+                    if (chunkStart >= 0 || b != '[') {
+                        throw new IOException("Expected an array of orders at byte " + position);
+                    }
+                    depth = 1;
+                    chunkStart = position + 1;
+                    continue;
+                }
+                switch (b) {
+                    case '"' -> inString = true;
+                    case '{', '[' -> {
+                        if (depth == 1) elementExpected = false;
+                        depth++;
+                    }
+                    case '}' -> {
+                        depth--;
+                        elementClosed = depth == 1;
+                    }
+                    case ']' -> {
+                        depth--;
+                        if (depth == 0) {
+                            if (elementExpected) {
+                                throw new IOException("Expected an order after the comma before byte " + position);
+                            }
+                            if (hasContent(channel, chunkStart, position)) {
+                                chunks.add(new long[]{chunkStart, position});
+                            }
+                            closedAt = position;
+                            i = limit;
+                        }
+                    }
+                    case ',' -> {
+                        if (depth == 1 && elementClosed && position - chunkStart >= chunkBytes) {
+                            chunks.add(new long[]{chunkStart, position});
+                            chunkStart = position + 1;
+                            elementExpected = true;
+                        }
+                        elementClosed = false;
+                    }
+                    default -> {
+                        if (!isWhitespace(b)) elementClosed = false;
+                    }
+                }
+            }
+        }
+        if (closedAt < 0) {
+            throw new IOException(chunkStart < 0 ? "Expected an array of orders" : "Unterminated array of orders");
+        }
+        checkTrailing(channel, closedAt + 1, size);
+        return chunks;
+    }
+
+    private Callable<List<Order>> parseTask(FileChannel channel, long start, long end) {
+        return () -> {
+            ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            InputStream in = new SequenceInputStream(Collections.enumeration(List.of(
+                    new ByteArrayInputStream(ARRAY_START), new ByteBufferInputStream(chunk), new ByteArrayInputStream(ARRAY_END))));
+            JsonParser parser = jsonFactory.createParser(in);
+            OrderIterator opened;
+            try {
+                opened = new OrderIterator(parser);
+            } catch (IOException e) {
+                parser.close();
+                throw e;
+            }
+            try (OrderIterator iterator = opened) {
+                List<Order> orders = new ArrayList<>();
+                iterator.forEachRemaining(orders::add);
+                return orders;
+            } catch (UncheckedIOException e) {
+                throw new IOException("Invalid order between bytes " + start + " and " + end + ": " + e.getCause().getMessage(), e.getCause());
+            }
+        };
+    }
+
+    private static List<Order> await(Future<List<Order>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading orders", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Failed to read orders", e.getCause());
+        }
+    }
+
+    // "[ ]" leaves only whitespace between the brackets
+    private static boolean hasContent(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        for (long position = start; position < end; position++) {
+            buffer.clear();
+            channel.read(buffer, position);
+            if (!isWhitespace(buffer.get(0))) return true;
+        }
+        return false;
+    }
+
+    private static void checkTrailing(FileChannel channel, long start, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        long position = start;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) break;
+            for (int i = 0; i < read; i++) {
+                if (!isWhitespace(buffer.get(i))) {
+                    throw new IOException("Unexpected content after the array of orders at byte " + (position + i));
+                }
+            }
+            position += read;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.io;
+
+import org.example.model.PaymentPlan;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// RFC 4180 CSV with a header row; ids holding a comma, quote or line break are quoted
+public class CsvPlanWriter extends PlanWriter {
+
+    private static final String HEADER = "orderId,paymentMethodId,totalOrderValue,pointsAmount,cashAmount,discount,finalAmount\n";
+
+    private final StringBuilder line = new StringBuilder(128);
+
+    public CsvPlanWriter(Path path, int bufferSize) throws IOException {
+        super(path, bufferSize);
+        putText(HEADER);
+    }
+
+    @Override
+    protected void encode(PaymentPlan plan) throws IOException {
+        line.setLength(0);
+        appendField(plan.getOrderId());
+        line.append(',');
+        appendField(plan.getPaymentMethodId());
+        line.append(',');
+        appendAmount(line, plan.getTotalOrderValueCents());
+        line.append(',');
+        appendAmount(line, plan.getPointsAmountCents());
+        line.append(',');
+        appendAmount(line, plan.getCashAmountCents());
+        line.append(',');
+        appendAmount(line, plan.getDiscountCents());
+        line.append(',');
+        appendAmount(line, plan.getFinalAmountCents());
+        line.append('\n');
+        putText(line);
+    }
+
+    private void appendField(String value) {
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quoted) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
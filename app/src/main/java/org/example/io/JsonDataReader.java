@@ -0,0 +1,106 @@
+package org.example.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentMethodJsonReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Reads through the parsers generated for the model classes (see GenerateJsonReader); databind
+// is never initialised, which saves most of the start-up time of a small run.
+public class JsonDataReader {
+
+    private final JsonFactory jsonFactory;
+
+    public JsonDataReader() {
+        this.jsonFactory = new JsonFactory();
+    }
+
+    public List<Order> readOrders(String filePath) throws IOException {
+        return collect(openOrders(filePath));
+    }
+
+    public OrderIterator openOrders(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            throw new IOException("Orders file not found: " + filePath);
+        }
+        return open(jsonFactory.createParser(file));
+    }
+
+    // whole JSON array from a stream, e.g. a request body; the stream is closed afterwards
+    public List<Order> readOrders(InputStream inputStream) throws IOException {
+        return collect(open(jsonFactory.createParser(inputStream)));
+    }
+
+    public Stream<Order> streamOrders(String filePath) throws IOException {
+        OrderIterator iterator = openOrders(filePath);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        iterator.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    // same orders in the same order as readOrders, parsed in chunks on the given number of threads
+    public List<Order> readOrdersParallel(String filePath, int threads) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            throw new IOException("Orders file not found: " + filePath);
+        }
+        return new ChunkedOrderReader(jsonFactory, threads).read(file.toPath());
+    }
+
+    public void forEachOrder(String filePath, Consumer<Order> consumer) throws IOException {
+        try (OrderIterator iterator = openOrders(filePath)) {
+            iterator.forEachRemaining(consumer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public List<PaymentMethod> readPaymentMethods(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            throw new IOException("Payment methods file not found: " + filePath);
+        }
+        try (JsonParser parser = jsonFactory.createParser(file)) {
+            return new PaymentMethodJsonReader().readArray(parser);
+        }
+    }
+
+    private OrderIterator open(JsonParser parser) throws IOException {
+        try {
+            return new OrderIterator(parser);
+        } catch (IOException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    private static List<Order> collect(OrderIterator opened) throws IOException {
+        try (OrderIterator iterator = opened) {
+            List<Order> orders = new ArrayList<>();
+            iterator.forEachRemaining(orders::add);
+            return orders;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.io;
+
+import org.example.model.PaymentPlan;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// One JSON object per line, with the same fields and two-decimal string amounts as JsonResultWriter
+public class JsonLinesPlanWriter extends PlanWriter {
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    public JsonLinesPlanWriter(Path path, int bufferSize) throws IOException {
+        super(path, bufferSize);
+    }
+
+    @Override
+    protected void encode(PaymentPlan plan) throws IOException {
+        line.setLength(0);
+        line.append("{\"orderId\":");
+        appendString(plan.getOrderId());
+        line.append(",\"paymentMethodId\":");
+        appendString(plan.getPaymentMethodId());
+        appendAmountField("totalOrderValue", plan.getTotalOrderValueCents());
+        appendAmountField("pointsAmount", plan.getPointsAmountCents());
+        appendAmountField("cashAmount", plan.getCashAmountCents());
+        appendAmountField("discount", plan.getDiscountCents());
+        appendAmountField("finalAmount", plan.getFinalAmountCents());
+        line.append("}\n");
+        putText(line);
+    }
+
+    private void appendAmountField(String name, long cents) {
+        line.append(",\"").append(name).append("\":\"");
+        appendAmount(line, cents);
+        line.append('"');
+    }
+
+    private void appendString(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.io;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Base of the readers generated for @GenerateJsonReader classes. The generated read method
+// switches over the field names and converts each value with the helpers below, which accept
+// what databind accepts for these types: scalars as strings, decimals as numbers or strings.
+public abstract class JsonObjectReader<T> {
+
+    private final String typeName;
+
+    protected JsonObjectReader(String typeName) {
+        this.typeName = typeName;
+    }
+
+    // the parser is on the START_OBJECT of one object and is left on its END_OBJECT
+    public abstract T read(JsonParser parser) throws IOException;
+
+    // a whole top-level array; the parser is not closed
+    public List<T> readArray(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected an array of " + typeName + "s");
+        }
+        List<T> values = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a " + typeName + " object but found " + token);
+            }
+            values.add(read(parser));
+        }
+        return values;
+    }
+
+    protected String readString(JsonParser parser, JsonToken token, String field) throws IOException {
+        if (token == JsonToken.VALUE_NULL) return null;
+        if (token == null || !token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string for \"" + field + "\" but found " + token);
+        }
+        return parser.getText();
+    }
+
+    protected BigDecimal readDecimal(JsonParser parser, JsonToken token, String field) throws IOException {
+        return switch (token) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+            case VALUE_STRING -> {
+                try {
+                    yield new BigDecimal(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw new JsonParseException(parser, "Expected a decimal for \"" + field + "\" but found \"" + parser.getText() + "\"", e);
+                }
+            }
+            default -> throw new JsonParseException(parser, "Expected a decimal for \"" + field + "\" but found " + token);
+        };
+    }
+
+    protected List<String> readStringList(JsonParser parser, JsonToken token, String field) throws IOException {
+        if (token == JsonToken.VALUE_NULL) return null;
+        if (token != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected an array for \"" + field + "\" but found " + token);
+        }
+        List<String> values = new ArrayList<>();
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            values.add(readString(parser, element, field));
+        }
+        return values;
+    }
+
+    protected JsonParseException unrecognizedField(JsonParser parser, String field) {
+        return new JsonParseException(parser, "Unrecognized field \"" + field + "\" in " + typeName);
+    }
+
+    // e.g. a missing required value, reported by the constructor
+    protected JsonParseException invalidValue(JsonParser parser, IllegalArgumentException e) {
+        return new JsonParseException(parser, e.getMessage(), e);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.io;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.example.model.PaymentPlan;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+
+// Plans and spending summary as one JSON object. Amounts are written as strings with two
+// decimals, the same way orders.json and paymentmethods.json carry them.
+public class JsonResultWriter {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public void writeResult(OutputStream outputStream, List<PaymentPlan> plans, Map<String, BigDecimal> summary, List<String> unpaidOrderIds) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+
+            generator.writeArrayFieldStart("plans");
+            for (PaymentPlan plan : plans) {
+                generator.writeStartObject();
+                generator.writeStringField("orderId", plan.getOrderId());
+                generator.writeStringField("paymentMethodId", plan.getPaymentMethodId());
+                writeAmount(generator, "totalOrderValue", plan.getTotalOrderValue());
+                writeAmount(generator, "pointsAmount", plan.getPointsAmount());
+                writeAmount(generator, "cashAmount", plan.getCashAmount());
+                writeAmount(generator, "discount", plan.getDiscount());
+                writeAmount(generator, "finalAmount", plan.getFinalAmount());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeObjectFieldStart("summary");
+            for (Map.Entry<String, BigDecimal> entry : summary.entrySet()) {
+                writeAmount(generator, entry.getKey(), entry.getValue());
+            }
+            generator.writeEndObject();
+
+            generator.writeArrayFieldStart("unpaidOrderIds");
+            for (String orderId : unpaidOrderIds) {
+                generator.writeString(orderId);
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    public void writeError(OutputStream outputStream, String message) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("error", message);
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeAmount(JsonGenerator generator, String field, BigDecimal amount) throws IOException {
+        generator.writeStringField(field, amount.setScale(2, RoundingMode.HALF_UP).toPlainString());
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.io;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.model.Order;
+import org.example.model.OrderJsonReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public class OrderIterator implements Iterator<Order>, Closeable {
+
+    private static final int MAX_CACHED_PROMOTION_SETS = 4096;
+
+    private final JsonParser parser;
+
+    // orders in big dumps share a handful of promotion sets, so the lists are shared too
+    private final Map<List<String>, List<String>> promotionsCache = new HashMap<>();
+    private final Map<String, String> methodIdCache = new HashMap<>();
+
+    private final OrderJsonReader orderReader = new OrderJsonReader() {
+        @Override
+        protected List<String> readStringList(JsonParser parser, JsonToken token, String field) throws IOException {
+            List<String> promotions = super.readStringList(parser, token, field);
+            return promotions != null ? sharedPromotions(promotions) : null;
+        }
+    };
+
+    private Order nextOrder;
+    private boolean finished;
+
+    OrderIterator(JsonParser parser) throws IOException {
+        this.parser = parser;
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected an array of orders");
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextOrder != null) return true;
+        if (finished) return false;
+
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY || token == null) {
+                finished = true;
+                close();
+                return false;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an order object but found " + token);
+            }
+            nextOrder = orderReader.read(parser);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Order next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Order order = nextOrder;
+        nextOrder = null;
+        return order;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        parser.close();
+    }
+
+    // a null entry is kept, as databind does, but such a list is not shared
+    private List<String> sharedPromotions(List<String> promotions) {
+        if (promotions.contains(null)) return promotions;
+        for (int i = 0; i < promotions.size(); i++) {
+            String methodId = promotions.get(i);
+            String cachedId = methodIdCache.get(methodId);
+            if (cachedId == null && methodIdCache.size() < MAX_CACHED_PROMOTION_SETS) {
+                methodIdCache.put(methodId, methodId);
+            }
+            if (cachedId != null) promotions.set(i, cachedId);
+        }
+        List<String> cached = promotionsCache.get(promotions);
+        if (cached != null) return cached;
+
+        List<String> shared = List.copyOf(promotions);
+        if (promotionsCache.size() < MAX_CACHED_PROMOTION_SETS) {
+            promotionsCache.put(shared, shared);
+        }
+        return shared;
+    }
+}
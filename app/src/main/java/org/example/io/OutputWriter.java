@@ -0,0 +1,61 @@
+package org.example.io;
+
+import org.example.model.Money;
+import org.example.service.ScenarioResult;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class OutputWriter {
+
+    public void printResultsToConsole(Map<String, BigDecimal> summary) {
+
+        if (summary == null || summary.isEmpty()) {
+            System.out.println("Brak danych do wyświetlenia podsumowania wydatków.");
+        } else {
+            summary.forEach((method, amount) ->
+                    System.out.println(method + " " + amount.setScale(2, RoundingMode.HALF_UP).toPlainString())
+            );
+        }
+    }
+
+    // one column per scenario: spending per method, total discount and paid orders
+    public void printScenarioComparison(List<ScenarioResult> results) {
+        if (results.isEmpty()) {
+            System.out.println("Brak scenariuszy do porównania.");
+            return;
+        }
+        Set<String> methodIds = new TreeSet<>();
+        results.forEach(result -> methodIds.addAll(result.getSpendingSummary().keySet()));
+
+        int width = results.stream().mapToInt(result -> result.getName().length()).max().orElse(0);
+        width = Math.max(width, 12);
+        String cell = " %" + width + "s";
+
+        StringBuilder header = new StringBuilder(String.format("%-14s", "metoda"));
+        results.forEach(result -> header.append(String.format(cell, result.getName())));
+        System.out.println(header);
+
+        for (String methodId : methodIds) {
+            StringBuilder row = new StringBuilder(String.format("%-14s", methodId));
+            for (ScenarioResult result : results) {
+                BigDecimal amount = result.getSpendingSummary().getOrDefault(methodId, BigDecimal.ZERO);
+                row.append(String.format(cell, amount.setScale(2, RoundingMode.HALF_UP).toPlainString()));
+            }
+            System.out.println(row);
+        }
+
+        StringBuilder discount = new StringBuilder(String.format("%-14s", "rabat"));
+        StringBuilder paid = new StringBuilder(String.format("%-14s", "opłacone"));
+        for (ScenarioResult result : results) {
+            discount.append(String.format(cell, Money.toBigDecimal(result.getTotalDiscountCents()).toPlainString()));
+            paid.append(String.format(cell, result.getPaidOrders() + "/" + (result.getPaidOrders() + result.getUnpaidOrders())));
+        }
+        System.out.println(discount);
+        System.out.println(paid);
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.io;
+
+import java.util.Locale;
+
+public enum PlanExportFormat {
+    JSONL,
+    CSV,
+    BINARY;
+
+    public static PlanExportFormat parse(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown export format: " + name + " (expected jsonl, csv or binary)", e);
+        }
+    }
+}
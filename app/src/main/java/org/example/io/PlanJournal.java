@@ -0,0 +1,295 @@
+package org.example.io;
+
+import org.example.model.Order;
+import org.example.model.PaymentPlan;
+import org.example.service.InputFingerprint;
+import org.example.service.PaymentMethodRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+// Write-ahead log of the plans an optimizer run commits, so a run that dies can resume instead of
+// starting over. Big-endian, after a 24-byte header (magic "PPJ1", format version, fingerprints of
+// the payment methods and of the orders the run was started for), one record per plan:
+//   u32 payload length, u32 CRC32C of the payload, payload:
+//   u16 orderId length, orderId UTF-8, u16 paymentMethodId length, paymentMethodId UTF-8,
+//   i64 totalOrderValue, pointsAmount, cashAmount, discount, finalAmount (all in cents),
+//   i16 ordinal charged with pointsAmount, i16 ordinal charged with cashAmount (-1 for none)
+// Records go straight into memory-mapped regions of the file, so they survive the JVM dying as
+// soon as append returns; force() every syncInterval records makes them survive the machine too.
+// A torn record at the end fails its checksum (or reads as length 0 in the zero-filled rest of the
+// region) and is dropped on resume, together with everything after it.
+public class PlanJournal implements Closeable {
+
+    public static final int DEFAULT_SYNC_INTERVAL = 4_096;
+
+    private static final int MAGIC = 0x50504A31; // "PPJ1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int AMOUNTS_BYTES = 5 * Long.BYTES + 2 * Short.BYTES;
+    private static final int MAX_ID_BYTES = 0xFFFF;
+    private static final int MAX_PAYLOAD_BYTES = 2 * (Short.BYTES + MAX_ID_BYTES) + AMOUNTS_BYTES;
+    private static final long REGION_BYTES = 16L << 20;
+    private static final int NO_METHOD = PaymentMethodRegistry.UNKNOWN_METHOD;
+
+    private final FileChannel channel;
+    private final PaymentMethodRegistry registry;
+    private final int syncInterval;
+    private final long[] remainingLimits;
+    private final List<PaymentPlan> replayedPlans;
+    private final ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD_BYTES);
+    private final CRC32C checksum = new CRC32C();
+
+    private MappedByteBuffer region;
+    private long regionStart;
+    // file offset after the last record, and after the last record known to be on disk
+    private long position;
+    private long syncedPosition;
+    private int unsyncedRecords;
+
+    private PlanJournal(FileChannel channel, PaymentMethodRegistry registry, int syncInterval,
+                        long[] remainingLimits, List<PaymentPlan> replayedPlans, long position) {
+        this.channel = channel;
+        this.registry = registry;
+        this.syncInterval = syncInterval;
+        this.remainingLimits = remainingLimits;
+        this.replayedPlans = replayedPlans;
+        this.position = position;
+        this.syncedPosition = position;
+    }
+
+    // an empty journal; an existing file is overwritten
+    public static PlanJournal create(Path path, PaymentMethodRegistry registry, List<Order> orders, int syncInterval) throws IOException {
+        checkSyncInterval(syncInterval);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION)
+                    .putLong(methodsFingerprint(registry)).putLong(ordersFingerprint(orders))
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new PlanJournal(channel, registry, syncInterval, registry.newLimitLedger(), new ArrayList<>(), HEADER_BYTES);
+    }
+
+    // the plans of an earlier run on the same inputs are replayed and new ones appended after them;
+    // without a journal file this is the same as create
+    public static PlanJournal resume(Path path, PaymentMethodRegistry registry, List<Order> orders, int syncInterval) throws IOException {
+        checkSyncInterval(syncInterval);
+        if (!Files.exists(path)) return create(path, registry, orders, syncInterval);
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Not a plan journal: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a plan journal: " + path);
+            }
+            if (header.getInt() != FORMAT_VERSION) {
+                throw new IOException("Plan journal " + path + " was written by another format version");
+            }
+            if (header.getLong() != methodsFingerprint(registry) || header.getLong() != ordersFingerprint(orders)) {
+                throw new IOException("Plan journal " + path + " was written for other orders or payment methods");
+            }
+
+            long[] remainingLimits = registry.newLimitLedger();
+            List<PaymentPlan> plans = new ArrayList<>();
+            long end = replay(channel, size, registry, remainingLimits, plans);
+            if (end < size) {
+                // the zero-filled rest of the last mapped region, or a record cut short by a crash
+                channel.truncate(end);
+                channel.force(true);
+            }
+            return new PlanJournal(channel, registry, syncInterval, remainingLimits, plans, end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // plans read back by resume, in the order they were committed
+    public List<PaymentPlan> getReplayedPlans() {
+        return replayedPlans;
+    }
+
+    // the limit ledger after every replayed and appended plan
+    public long[] remainingLimits() {
+        return remainingLimits.clone();
+    }
+
+    // orders without a replayed plan, in input order; of orders sharing an id, the first ones count as planned
+    public List<Order> unplannedOrders(List<Order> orders) {
+        Map<String, Integer> planned = new HashMap<>();
+        replayedPlans.forEach(plan -> planned.merge(plan.getOrderId(), 1, Integer::sum));
+        List<Order> unplanned = new ArrayList<>(Math.max(0, orders.size() - replayedPlans.size()));
+        for (Order order : orders) {
+            Integer count = planned.get(order.getOrderId());
+            if (count == null) {
+                unplanned.add(order);
+            } else if (count == 1) {
+                planned.remove(order.getOrderId());
+            } else {
+                planned.put(order.getOrderId(), count - 1);
+            }
+        }
+        return unplanned;
+    }
+
+    public void append(PaymentPlan plan) throws IOException {
+        int pointsMethod = plan.getPointsAmountCents() > 0 ? registry.getPointsOrdinal() : NO_METHOD;
+        int cashMethod = registry.cashOrdinal(plan);
+
+        payload.clear();
+        putId(plan.getOrderId());
+        putId(plan.getPaymentMethodId());
+        payload.putLong(plan.getTotalOrderValueCents())
+                .putLong(plan.getPointsAmountCents())
+                .putLong(plan.getCashAmountCents())
+                .putLong(plan.getDiscountCents())
+                .putLong(plan.getFinalAmountCents())
+                .putShort((short) pointsMethod)
+                .putShort((short) cashMethod)
+                .flip();
+        checksum.reset();
+        checksum.update(payload.array(), 0, payload.limit());
+
+        int recordBytes = RECORD_HEADER_BYTES + payload.limit();
+        MappedByteBuffer target = regionFor(recordBytes);
+        target.position((int) (position - regionStart));
+        target.putInt(payload.limit()).putInt((int) checksum.getValue()).put(payload);
+        position += recordBytes;
+
+        registry.charge(plan, remainingLimits);
+        if (++unsyncedRecords >= syncInterval) sync();
+    }
+
+    // forces the records appended since the last sync to disk
+    public void sync() {
+        if (region != null && position > syncedPosition) {
+            long from = Math.max(syncedPosition, regionStart);
+            region.force((int) (from - regionStart), (int) (position - from));
+        }
+        syncedPosition = position;
+        unsyncedRecords = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+            region = null;
+            channel.truncate(position);
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // a mapped region with room for the next record at position; the current one is synced first
+    // when a new region has to be mapped, as it may not be forced once it is dropped
+    private MappedByteBuffer regionFor(int recordBytes) throws IOException {
+        if (region == null || position + recordBytes > regionStart + region.capacity()) {
+            sync();
+            region = channel.map(FileChannel.MapMode.READ_WRITE, position, REGION_BYTES);
+            regionStart = position;
+        }
+        return region;
+    }
+
+    private static long replay(FileChannel channel, long size, PaymentMethodRegistry registry,
+                               long[] remainingLimits, List<PaymentPlan> plans) throws IOException {
+        CRC32C checksum = new CRC32C();
+        MappedByteBuffer region = null;
+        long regionStart = 0L;
+        long position = HEADER_BYTES;
+        while (position + RECORD_HEADER_BYTES <= size) {
+            if (region == null || position + RECORD_HEADER_BYTES > regionStart + region.capacity()) {
+                regionStart = position;
+                region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(REGION_BYTES, size - regionStart));
+            }
+            int offset = (int) (position - regionStart);
+            int length = region.getInt(offset);
+            int expected = region.getInt(offset + Integer.BYTES);
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES || position + RECORD_HEADER_BYTES + length > size) break;
+            if (position + RECORD_HEADER_BYTES + length > regionStart + region.capacity()) {
+                regionStart = position;
+                region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(REGION_BYTES, size - regionStart));
+                offset = 0;
+            }
+
+            ByteBuffer record = region.duplicate();
+            record.position(offset + RECORD_HEADER_BYTES).limit(offset + RECORD_HEADER_BYTES + length);
+            checksum.reset();
+            checksum.update(record.duplicate());
+            if ((int) checksum.getValue() != expected) break;
+
+            PaymentPlan plan = new PaymentPlan(getId(record), getId(record),
+                    record.getLong(), record.getLong(), record.getLong(), record.getLong(), record.getLong());
+            int pointsMethod = record.getShort();
+            int cashMethod = record.getShort();
+            if (!isMethod(pointsMethod, registry) || !isMethod(cashMethod, registry)) {
+                throw new IOException("Plan journal record at offset " + position + " names an unknown payment method");
+            }
+            if (pointsMethod != NO_METHOD) remainingLimits[pointsMethod] -= plan.getPointsAmountCents();
+            if (cashMethod != NO_METHOD) remainingLimits[cashMethod] -= plan.getCashAmountCents();
+            plans.add(plan);
+            position += RECORD_HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static boolean isMethod(int ordinal, PaymentMethodRegistry registry) {
+        return ordinal == NO_METHOD || ordinal >= 0 && ordinal < registry.size();
+    }
+
+    private void putId(String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Id longer than " + MAX_ID_BYTES + " bytes: " + id.substring(0, 32) + "...");
+        }
+        payload.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getId(ByteBuffer record) {
+        byte[] bytes = new byte[Short.toUnsignedInt(record.getShort())];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long methodsFingerprint(PaymentMethodRegistry registry) {
+        return Long.parseUnsignedLong(InputFingerprint.ofMethods(registry.getMethods()), 16);
+    }
+
+    private static long ordersFingerprint(List<Order> orders) {
+        return Long.parseUnsignedLong(InputFingerprint.ofOrders(orders), 16);
+    }
+
+    private static void checkSyncInterval(int syncInterval) {
+        if (syncInterval < 1) {
+            throw new IllegalArgumentException("Sync interval must be positive, got: " + syncInterval);
+        }
+    }
+}
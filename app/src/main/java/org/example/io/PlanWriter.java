@@ -0,0 +1,107 @@
+package org.example.io;
+
+import org.example.model.PaymentPlan;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Streams plans to a file one at a time. Records are encoded straight into a large direct buffer
+// that is handed to the FileChannel whenever it fills up, so no plan is kept after write returns.
+public abstract class PlanWriter implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    protected final ByteBuffer buffer;
+    private long plansWritten;
+
+    protected PlanWriter(Path path, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public static PlanWriter open(Path path, PlanExportFormat format) throws IOException {
+        return switch (format) {
+            case JSONL -> new JsonLinesPlanWriter(path, DEFAULT_BUFFER_SIZE);
+            case CSV -> new CsvPlanWriter(path, DEFAULT_BUFFER_SIZE);
+            case BINARY -> new BinaryPlanWriter(path, DEFAULT_BUFFER_SIZE);
+        };
+    }
+
+    public void write(PaymentPlan plan) throws IOException {
+        encode(plan);
+        plansWritten++;
+    }
+
+    public long getPlansWritten() {
+        return plansWritten;
+    }
+
+    protected abstract void encode(PaymentPlan plan) throws IOException;
+
+    // makes room for a record of the given size, which must fit in the buffer as a whole
+    protected void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+            if (buffer.remaining() < bytes) {
+                throw new IOException("Record of " + bytes + " bytes does not fit the " + buffer.capacity() + " byte buffer");
+            }
+        }
+    }
+
+    // UTF-8 bytes of the text; ASCII, the usual case for ids and amounts, is copied without a byte[]
+    protected void putText(CharSequence text) throws IOException {
+        int length = text.length();
+        if (isAscii(text)) {
+            ensureRemaining(length);
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) text.charAt(i));
+            }
+        } else {
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            ensureRemaining(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    protected static boolean isAscii(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    // cents as a plain two-decimal amount, the way the input files carry them
+    protected static void appendAmount(StringBuilder line, long cents) {
+        if (cents < 0) {
+            line.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        line.append(cents / 100).append('.');
+        if (fraction < 10) line.append('0');
+        line.append(fraction);
+    }
+
+    protected void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
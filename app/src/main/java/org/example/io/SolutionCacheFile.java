@@ -0,0 +1,121 @@
+package org.example.io;
+
+import org.example.model.Money;
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+import org.example.service.CachedSolution;
+import org.example.service.PointsStrategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// A CachedSolution in a compact binary file: the cache is read and written on every run, where
+// JSON took longer than the re-optimization it saves. Amounts are stored in cents. Written to a
+// temporary file first and then moved, so an interrupted run leaves the previous cache in place.
+public class SolutionCacheFile {
+
+    private static final int MAGIC = 0x50504331; // "PPC1"
+    private static final int FORMAT_VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // empty when there is no cache yet or it was written by another format version
+    public Optional<CachedSolution> read(Path path) throws IOException {
+        if (!Files.exists(path)) return Optional.empty();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a cached solution: " + path);
+            }
+            if (in.readInt() != FORMAT_VERSION) return Optional.empty();
+            PointsStrategy pointsStrategy = PointsStrategy.valueOf(in.readUTF());
+
+            int methodCount = in.readInt();
+            List<PaymentMethod> methods = new ArrayList<>(methodCount);
+            for (int i = 0; i < methodCount; i++) {
+                methods.add(new PaymentMethod(in.readUTF(), new BigDecimal(in.readUTF()), new BigDecimal(in.readUTF())));
+            }
+
+            int orderCount = in.readInt();
+            List<Order> orders = new ArrayList<>(orderCount);
+            for (int i = 0; i < orderCount; i++) {
+                String orderId = in.readUTF();
+                BigDecimal value = Money.toBigDecimal(in.readLong());
+                int promotionCount = in.readInt();
+                List<String> promotions = null;
+                if (promotionCount >= 0) {
+                    promotions = new ArrayList<>(promotionCount);
+                    for (int p = 0; p < promotionCount; p++) {
+                        promotions.add(in.readUTF());
+                    }
+                }
+                orders.add(new Order(orderId, value, promotions));
+            }
+
+            int planCount = in.readInt();
+            List<PaymentPlan> plans = new ArrayList<>(planCount);
+            for (int i = 0; i < planCount; i++) {
+                plans.add(new PaymentPlan(in.readUTF(), in.readUTF(),
+                        in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong()));
+            }
+            return Optional.of(new CachedSolution(methods, orders, plans, pointsStrategy));
+        }
+    }
+
+    public void write(Path path, CachedSolution solution) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(solution.getPointsStrategy().name());
+
+                out.writeInt(solution.getMethods().size());
+                for (PaymentMethod method : solution.getMethods()) {
+                    out.writeUTF(method.getId());
+                    out.writeUTF(method.getDiscount().toPlainString());
+                    out.writeUTF(method.getLimit().toPlainString());
+                }
+
+                out.writeInt(solution.getOrders().size());
+                for (Order order : solution.getOrders()) {
+                    out.writeUTF(order.getOrderId());
+                    out.writeLong(order.getTotalOrderValueCents());
+                    // -1 keeps "no promotions field" apart from an empty list
+                    List<String> promotions = order.getPromotions();
+                    out.writeInt(promotions != null ? promotions.size() : -1);
+                    if (promotions != null) {
+                        for (String promotion : promotions) {
+                            out.writeUTF(promotion);
+                        }
+                    }
+                }
+
+                out.writeInt(solution.getPlans().size());
+                for (PaymentPlan plan : solution.getPlans()) {
+                    out.writeUTF(plan.getOrderId());
+                    out.writeUTF(plan.getPaymentMethodId());
+                    out.writeLong(plan.getTotalOrderValueCents());
+                    out.writeLong(plan.getPointsAmountCents());
+                    out.writeLong(plan.getCashAmountCents());
+                    out.writeLong(plan.getDiscountCents());
+                    out.writeLong(plan.getFinalAmountCents());
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.io;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.example.model.Money;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.example.service.PaymentMethodRegistry.POINTS_METHOD_ID;
+
+// Writes orders.json and paymentmethods.json for a WorkloadSpec. Orders are streamed one by one,
+// so the size is not bounded by memory, and the same spec always produces the same files.
+public class SyntheticWorkloadGenerator {
+
+    public static final String ORDERS_FILE = "orders.json";
+    public static final String PAYMENT_METHODS_FILE = "paymentmethods.json";
+
+    private static final double LOG_NORMAL_SIGMA = 0.8;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    // returns the total order value in cents
+    public long generate(WorkloadSpec spec, Path directory) throws IOException {
+        if (spec.getCardCount() < 0 || spec.getCardCount() >= 64) {
+            throw new IllegalArgumentException("Card count must be between 0 and 63, got: " + spec.getCardCount());
+        }
+        long minCents = Money.toCents(spec.getMinOrderValue());
+        long maxCents = Money.toCents(spec.getMaxOrderValue());
+        if (minCents <= 0 || maxCents < minCents) {
+            throw new IllegalArgumentException("Order values must satisfy 0 < min <= max, got: " + spec.getMinOrderValue() + ", " + spec.getMaxOrderValue());
+        }
+
+        // separate streams, so changing e.g. the promotion mix does not change the order values
+        SplittableRandom root = new SplittableRandom(spec.getSeed());
+        SplittableRandom values = root.split();
+        SplittableRandom promotions = root.split();
+        SplittableRandom discounts = root.split();
+
+        long totalCents = 0L;
+        try (JsonGenerator generator = jsonFactory.createGenerator(directory.resolve(ORDERS_FILE).toFile(), JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (int i = 0; i < spec.getOrderCount(); i++) {
+                long cents = nextValue(spec, values, minCents, maxCents);
+                totalCents += cents;
+
+                generator.writeStartObject();
+                generator.writeStringField("id", "ORDER" + (i + 1));
+                generator.writeStringField("value", Money.toBigDecimal(cents).toPlainString());
+                boolean started = false;
+                for (int card = 1; card <= spec.getCardCount(); card++) {
+                    if (promotions.nextDouble() >= spec.getPromotionProbability()) continue;
+                    if (!started) {
+                        generator.writeArrayFieldStart("promotions");
+                        started = true;
+                    }
+                    generator.writeString(cardId(card));
+                }
+                if (started) {
+                    generator.writeEndArray();
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(directory.resolve(PAYMENT_METHODS_FILE).toFile(), JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            writeMethod(generator, POINTS_METHOD_ID, spec.getPointsDiscountPercent(), (long) (totalCents * spec.getPointsTightness()));
+            for (int card = 1; card <= spec.getCardCount(); card++) {
+                int discount = 1 + discounts.nextInt(Math.max(1, spec.getMaxCardDiscountPercent()));
+                writeMethod(generator, cardId(card), discount, (long) (totalCents * spec.getCardTightness() / spec.getCardCount()));
+            }
+            generator.writeEndArray();
+        }
+        return totalCents;
+    }
+
+    private long nextValue(WorkloadSpec spec, SplittableRandom random, long minCents, long maxCents) {
+        if (spec.getValueDistribution() == WorkloadSpec.ValueDistribution.UNIFORM) {
+            return random.nextLong(minCents, maxCents + 1);
+        }
+        // median at the geometric mean of the bounds, long tail of large orders cut at the maximum
+        double median = Math.sqrt((double) minCents * maxCents);
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        long cents = Math.round(median * Math.exp(LOG_NORMAL_SIGMA * gaussian));
+        return Math.max(minCents, Math.min(maxCents, cents));
+    }
+
+    private void writeMethod(JsonGenerator generator, String id, int discountPercent, long limitCents) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", id);
+        generator.writeStringField("discount", Integer.toString(discountPercent));
+        generator.writeStringField("limit", Money.toBigDecimal(limitCents).toPlainString());
+        generator.writeEndObject();
+    }
+
+    private static String cardId(int card) {
+        return String.format("CARD%02d", card);
+    }
+}
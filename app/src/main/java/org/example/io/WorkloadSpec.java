@@ -0,0 +1,50 @@
+package org.example.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.With;
+
+import java.math.BigDecimal;
+
+// Shape of a synthetic workload. Limits are given as a share of the total order value, so the
+// same tightness means the same pressure on limits at any batch size. The defaults add up to
+// more than the total order value, so every order can be paid.
+@AllArgsConstructor
+@Getter
+@With
+@ToString
+public class WorkloadSpec {
+
+    public enum ValueDistribution { UNIFORM, LOG_NORMAL }
+
+    private long seed;
+
+    private int orderCount;
+
+    private int cardCount;
+
+    private ValueDistribution valueDistribution;
+
+    private BigDecimal minOrderValue;
+
+    private BigDecimal maxOrderValue;
+
+    // chance that a given card is among an order's promotions
+    private double promotionProbability;
+
+    private int maxCardDiscountPercent;
+
+    private int pointsDiscountPercent;
+
+    // PUNKTY limit / total order value
+    private double pointsTightness;
+
+    // sum of card limits / total order value
+    private double cardTightness;
+
+    public static WorkloadSpec defaults() {
+        return new WorkloadSpec(1L, 10_000, 2, ValueDistribution.UNIFORM, new BigDecimal("1.00"), new BigDecimal("500.00"),
+                0.4, 10, 15, 0.15, 0.9);
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Amounts are kept as long minor units (cents) and percentages as hundredths of a percent.
+// BigDecimal only appears when converting from and to the JSON / console representation.
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_EVEN;
+
+    private static final long PERCENT_DIVISOR = 100L * 100L;
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, ROUNDING_MODE).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long toBasisPoints(BigDecimal percent) {
+        try {
+            return percent.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Percentage must have at most " + SCALE + " decimal places: " + percent, e);
+        }
+    }
+
+    // value * percent / 100, rounded HALF_EVEN to whole cents
+    public static long percentOf(long cents, long basisPoints) {
+        return divideHalfEven(Math.multiplyExact(cents, basisPoints), PERCENT_DIVISOR);
+    }
+
+    public static long divideHalfEven(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) return quotient;
+
+        long twiceRemainder = Math.abs(remainder) * 2;
+        long absDivisor = Math.abs(divisor);
+        int sign = (dividend < 0) == (divisor < 0) ? 1 : -1;
+
+        if (twiceRemainder > absDivisor || (twiceRemainder == absDivisor && (quotient & 1) != 0)) {
+            return quotient + sign;
+        }
+        return quotient;
+    }
+}
@@ -3,11 +3,13 @@ package org.example.model;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
+import org.example.codegen.GenerateJsonReader;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Objects;
 
+@GenerateJsonReader
 @NoArgsConstructor
 @Getter
 @ToString
@@ -18,6 +20,8 @@ public class Order {
 
     private List<String> promotions;
 
+    private long totalOrderValueCents;
+
     @JsonCreator
     public Order(@JsonProperty("id") String orderId,
                  @JsonProperty("value") BigDecimal totalOrderValue,
@@ -25,6 +29,10 @@ public class Order {
         this.orderId = orderId;
         this.totalOrderValue = totalOrderValue;
         this.promotions = promotions;
+        if (totalOrderValue == null) {
+            throw new IllegalArgumentException("Order " + orderId + " has no value");
+        }
+        this.totalOrderValueCents = Money.toCents(totalOrderValue);
     }
 
     @Override
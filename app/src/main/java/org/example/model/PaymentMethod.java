@@ -3,10 +3,12 @@ package org.example.model;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
+import org.example.codegen.GenerateJsonReader;
 
 import java.math.BigDecimal;
 import java.util.Objects;
 
+@GenerateJsonReader
 @NoArgsConstructor
 @Getter
 @ToString
@@ -18,6 +20,10 @@ public class PaymentMethod {
 
     private BigDecimal limit;
 
+    private long discountBasisPoints;
+
+    private long limitCents;
+
     @JsonCreator
     public PaymentMethod(@JsonProperty("id") String id,
                          @JsonProperty("discount") BigDecimal discount,
@@ -25,6 +31,11 @@ public class PaymentMethod {
         this.id = id;
         this.discount = discount;
         this.limit = limit;
+        if (discount == null || limit == null) {
+            throw new IllegalArgumentException("Payment method " + id + " must define discount and limit");
+        }
+        this.discountBasisPoints = Money.toBasisPoints(discount);
+        this.limitCents = Money.toCents(limit);
     }
 
     @Override
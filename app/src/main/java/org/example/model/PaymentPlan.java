@@ -0,0 +1,68 @@
+package org.example.model;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+@AllArgsConstructor
+@Getter
+@ToString
+public class PaymentPlan {
+    private String orderId;
+
+    private String paymentMethodId;
+
+    private long totalOrderValueCents;
+
+    private long pointsAmountCents;
+
+    private long cashAmountCents;
+
+    private long discountCents;
+
+    private long finalAmountCents;
+
+    public BigDecimal getTotalOrderValue() {
+        return Money.toBigDecimal(totalOrderValueCents);
+    }
+
+    public BigDecimal getPointsAmount() {
+        return Money.toBigDecimal(pointsAmountCents);
+    }
+
+    public BigDecimal getCashAmount() {
+        return Money.toBigDecimal(cashAmountCents);
+    }
+
+    public BigDecimal getDiscount() {
+        return Money.toBigDecimal(discountCents);
+    }
+
+    public BigDecimal getFinalAmount() {
+        return Money.toBigDecimal(finalAmountCents);
+    }
+
+    public boolean isFullyPaid() {
+        return pointsAmountCents + cashAmountCents >= totalOrderValueCents;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PaymentPlan that = (PaymentPlan) o;
+        return Objects.equals(orderId, that.orderId) &&
+                Objects.equals(paymentMethodId, that.paymentMethodId) &&
+                totalOrderValueCents == that.totalOrderValueCents &&
+                pointsAmountCents == that.pointsAmountCents &&
+                cashAmountCents == that.cashAmountCents &&
+                discountCents == that.discountCents &&
+                finalAmountCents == that.finalAmountCents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, paymentMethodId, totalOrderValueCents, pointsAmountCents, cashAmountCents, discountCents, finalAmountCents);
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.server;
+
+import org.example.model.Order;
+import org.example.model.PaymentPlan;
+import org.example.service.PaymentSolver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Collects order batches submitted within a short window and runs them through one
+// optimizePayments call, so they share the limits the way orders of a single file do.
+// An order id already taken by an earlier submission of the same batch gets a "#2", "#3", ...
+// suffix while optimizing, so equal ids cannot clash and solver warnings still name the order.
+// If the dispatcher dies, the coalescer closes itself and fails everything still waiting.
+public class OrderBatchCoalescer implements AutoCloseable {
+
+    private final PaymentSolver solver;
+    private final long windowNanos;
+    private final int maxBatchOrders;
+    private final BlockingQueue<Submission> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+
+    private volatile boolean closed;
+
+    public OrderBatchCoalescer(PaymentSolver solver, Duration window, int maxBatchOrders) {
+        this.solver = solver;
+        this.windowNanos = window.toNanos();
+        this.maxBatchOrders = maxBatchOrders;
+        this.dispatcher = new Thread(this::dispatchLoop, "order-batch-coalescer");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    // completes with the plans of the submitted orders, under their original ids
+    public CompletableFuture<List<PaymentPlan>> submit(List<Order> orders) {
+        Set<String> ids = new HashSet<>();
+        for (Order order : orders) {
+            if (!ids.add(order.getOrderId())) {
+                throw new IllegalArgumentException("Duplicate order id: " + order.getOrderId());
+            }
+        }
+        if (closed) {
+            throw new IllegalStateException("Coalescer is closed");
+        }
+
+        Submission submission = new Submission(orders);
+        queue.add(submission);
+        // closed in the meantime: the dispatcher may already have drained the queue for the last time
+        if (closed && queue.remove(submission)) {
+            submission.result.completeExceptionally(new IllegalStateException("Coalescer is closed"));
+        }
+        return submission.result;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (!closed) {
+                List<Submission> batch = new ArrayList<>();
+                try {
+                    Submission first = queue.take();
+                    batch.add(first);
+                    int orderCount = first.orders.size();
+
+                    long deadline = System.nanoTime() + windowNanos;
+                    while (orderCount < maxBatchOrders) {
+                        Submission next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) break;
+                        batch.add(next);
+                        orderCount += next.orders.size();
+                    }
+                } catch (InterruptedException e) {
+                    batch.forEach(submission -> submission.result.completeExceptionally(e));
+                    break;
+                }
+                process(batch);
+            }
+        } finally {
+            // also after an Error: submissions nobody would take again must not wait forever
+            closed = true;
+            Submission pending;
+            while ((pending = queue.poll()) != null) {
+                pending.result.completeExceptionally(new IllegalStateException("Coalescer is closed"));
+            }
+        }
+    }
+
+    private void process(List<Submission> batch) {
+        try {
+            List<Order> combined = new ArrayList<>();
+            List<Submission> owners = new ArrayList<>();
+            List<Order> originals = new ArrayList<>();
+            Map<String, Integer> indexById = new HashMap<>();
+            for (Submission submission : batch) {
+                for (Order order : submission.orders) {
+                    String id = order.getOrderId();
+                    for (int copy = 2; indexById.containsKey(id); copy++) {
+                        id = order.getOrderId() + "#" + copy;
+                    }
+                    indexById.put(id, combined.size());
+                    combined.add(new Order(id, order.getTotalOrderValue(), order.getPromotions()));
+                    owners.add(submission);
+                    originals.add(order);
+                }
+            }
+
+            for (PaymentPlan plan : solver.optimizePayments(combined)) {
+                int index = indexById.get(plan.getOrderId());
+                owners.get(index).plans.add(new PaymentPlan(
+                        originals.get(index).getOrderId(),
+                        plan.getPaymentMethodId(),
+                        plan.getTotalOrderValueCents(),
+                        plan.getPointsAmountCents(),
+                        plan.getCashAmountCents(),
+                        plan.getDiscountCents(),
+                        plan.getFinalAmountCents()));
+            }
+            batch.forEach(submission -> submission.result.complete(submission.plans));
+        } catch (RuntimeException e) {
+            batch.forEach(submission -> submission.result.completeExceptionally(e));
+        } finally {
+            // an Error passes the catch above; its batch still gets an answer (no-op for completed ones)
+            IllegalStateException unfinished = new IllegalStateException("Optimization did not finish");
+            batch.forEach(submission -> submission.result.completeExceptionally(unfinished));
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+    }
+
+    private static final class Submission {
+        private final List<Order> orders;
+        private final List<PaymentPlan> plans = new ArrayList<>();
+        private final CompletableFuture<List<PaymentPlan>> result = new CompletableFuture<>();
+
+        Submission(List<Order> orders) {
+            this.orders = orders;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.io.JsonDataReader;
+import org.example.io.JsonResultWriter;
+import org.example.model.Order;
+import org.example.model.PaymentPlan;
+import org.example.service.PaymentSolver;
+import org.example.service.SpendingSummary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+// Long-running alternative to the one-shot CLI: payment methods are loaded once and every
+// POST /optimize with a JSON array of orders gets its plans and spending summary back.
+// Bound to the loopback address only.
+public class PaymentServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final Duration DEFAULT_BATCH_WINDOW = Duration.ofMillis(20);
+    public static final int DEFAULT_MAX_BATCH_ORDERS = 100_000;
+
+    private static final int STOP_DELAY_SECONDS = 1;
+    // far above any solver's time budget; a request is never left hanging on a stuck batch
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(60);
+
+    private final OrderBatchCoalescer coalescer;
+    private final JsonDataReader dataReader = new JsonDataReader();
+    private final JsonResultWriter resultWriter = new JsonResultWriter();
+    private final HttpServer httpServer;
+    private final ExecutorService handlers;
+
+    public PaymentServer(PaymentSolver solver, int port, Duration batchWindow, int maxBatchOrders) throws IOException {
+        this.coalescer = new OrderBatchCoalescer(solver, batchWindow, maxBatchOrders);
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // handlers mostly wait for their batch, so a thread per request is fine
+        this.handlers = Executors.newCachedThreadPool();
+        httpServer.setExecutor(handlers);
+        httpServer.createContext("/optimize", this::handleOptimize);
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    private void handleOptimize(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, 405, "Only POST is supported");
+                return;
+            }
+
+            List<Order> orders;
+            try {
+                orders = dataReader.readOrders(exchange.getRequestBody());
+            } catch (JsonProcessingException e) {
+                sendError(exchange, 400, "Invalid orders: " + e.getOriginalMessage());
+                return;
+            }
+
+            List<PaymentPlan> plans;
+            try {
+                plans = coalescer.submit(orders).get(RESPONSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            } catch (IllegalStateException e) {
+                sendError(exchange, 503, "Server is shutting down");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendError(exchange, 503, "Server is shutting down");
+                return;
+            } catch (TimeoutException e) {
+                sendError(exchange, 503, "Optimization did not finish in time");
+                return;
+            } catch (ExecutionException e) {
+                // a closed coalescer fails what it can no longer run
+                int status = coalescer.isClosed() ? 503 : 500;
+                sendError(exchange, status, "Optimization failed: " + e.getCause().getMessage());
+                return;
+            }
+
+            SpendingSummary spending = new SpendingSummary();
+            plans.forEach(spending::add);
+            Map<String, BigDecimal> summary = spending.toBigDecimals();
+            Set<String> paid = plans.stream().map(PaymentPlan::getOrderId).collect(Collectors.toSet());
+            List<String> unpaid = orders.stream().map(Order::getOrderId).filter(id -> !paid.contains(id)).toList();
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            resultWriter.writeResult(body, plans, summary, unpaid);
+            send(exchange, 200, body.toByteArray());
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        resultWriter.writeError(body, message);
+        send(exchange, status, body.toByteArray());
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(STOP_DELAY_SECONDS);
+        coalescer.close();
+        handlers.shutdown();
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.service;
+
+import static org.example.service.PaymentProblem.CARD_PROMOTION;
+import static org.example.service.PaymentProblem.FULL_POINTS;
+import static org.example.service.PaymentProblem.UNPAID;
+import static org.example.service.PaymentProblem.kindOf;
+import static org.example.service.PaymentProblem.methodOf;
+
+// Limit usage of a partial assignment, maintained in O(1) per add/remove.
+// Split orders on a card need sum(points) >= fixed + due - limit, so the cheapest feasible
+// points usage on that card is max(sum of minimum points, that shortfall).
+public class AllocationState {
+
+    private final PaymentProblem problem;
+    private final long pointsLimit;
+    private final long[] cardLimits;
+
+    private final long[] fixedCash;
+    private final long[] splitDue;
+    private final long[] splitMinPoints;
+    private final long[] splitMaxPoints;
+    private final long[] pointsOnCard;
+
+    private long fixedPoints;
+    private long totalSplitMinPoints;
+    private long pointsUsed;
+
+    public AllocationState(PaymentProblem problem) {
+        this(problem, problem.getRegistry().newLimitLedger());
+    }
+
+    public AllocationState(PaymentProblem problem, long[] limits) {
+        PaymentMethodRegistry registry = problem.getRegistry();
+        this.problem = problem;
+        this.pointsLimit = registry.availablePoints(limits);
+        this.cardLimits = limits.clone();
+
+        int methods = registry.size();
+        this.fixedCash = new long[methods];
+        this.splitDue = new long[methods];
+        this.splitMinPoints = new long[methods];
+        this.splitMaxPoints = new long[methods];
+        this.pointsOnCard = new long[methods];
+    }
+
+    public AllocationState copy() {
+        AllocationState copy = new AllocationState(problem, cardLimits);
+        System.arraycopy(fixedCash, 0, copy.fixedCash, 0, fixedCash.length);
+        System.arraycopy(splitDue, 0, copy.splitDue, 0, splitDue.length);
+        System.arraycopy(splitMinPoints, 0, copy.splitMinPoints, 0, splitMinPoints.length);
+        System.arraycopy(splitMaxPoints, 0, copy.splitMaxPoints, 0, splitMaxPoints.length);
+        System.arraycopy(pointsOnCard, 0, copy.pointsOnCard, 0, pointsOnCard.length);
+        copy.fixedPoints = fixedPoints;
+        copy.totalSplitMinPoints = totalSplitMinPoints;
+        copy.pointsUsed = pointsUsed;
+        return copy;
+    }
+
+    public boolean canAdd(int order, int option) {
+        int kind = kindOf(option);
+        if (kind == UNPAID) return true;
+        if (kind == FULL_POINTS) {
+            return pointsUsed + problem.fixedUsage(order, option) <= pointsLimit;
+        }
+
+        int card = methodOf(option);
+        long cash = kind == CARD_PROMOTION ? problem.fixedUsage(order, option) : 0L;
+        long due = problem.due(order, option);
+        long maxPoints = problem.maxPoints(order, option);
+
+        long shortfall = fixedCash[card] + cash + splitDue[card] + due - cardLimits[card];
+        if (shortfall > splitMaxPoints[card] + maxPoints) return false;
+
+        long points = Math.max(splitMinPoints[card] + problem.minPoints(order, option), shortfall);
+        return pointsUsed - pointsOnCard[card] + points <= pointsLimit;
+    }
+
+    public void add(int order, int option) {
+        apply(order, option, 1);
+    }
+
+    public void remove(int order, int option) {
+        apply(order, option, -1);
+    }
+
+    private void apply(int order, int option, int sign) {
+        int kind = kindOf(option);
+        if (kind == UNPAID) return;
+        if (kind == FULL_POINTS) {
+            long points = sign * problem.fixedUsage(order, option);
+            fixedPoints += points;
+            pointsUsed += points;
+            return;
+        }
+
+        int card = methodOf(option);
+        if (kind == CARD_PROMOTION) {
+            fixedCash[card] += sign * problem.fixedUsage(order, option);
+        } else {
+            long minPoints = sign * problem.minPoints(order, option);
+            splitDue[card] += sign * problem.due(order, option);
+            splitMinPoints[card] += minPoints;
+            splitMaxPoints[card] += sign * problem.maxPoints(order, option);
+            totalSplitMinPoints += minPoints;
+        }
+
+        long shortfall = fixedCash[card] + splitDue[card] - cardLimits[card];
+        long points = Math.max(splitMinPoints[card], shortfall);
+        pointsUsed += points - pointsOnCard[card];
+        pointsOnCard[card] = points;
+    }
+
+    public long getPointsUsed() {
+        return pointsUsed;
+    }
+
+    public long getPointsLimit() {
+        return pointsLimit;
+    }
+
+    public long extraPointsOnCard(int card) {
+        return pointsOnCard[card] - splitMinPoints[card];
+    }
+
+    // optimistic leftovers used by the bounds: each resource assumes the split went its way
+    public long relaxedRemainingPoints() {
+        return pointsLimit - fixedPoints - totalSplitMinPoints;
+    }
+
+    public long relaxedRemainingLimit(int card) {
+        return cardLimits[card] - fixedCash[card] - splitDue[card] + splitMaxPoints[card];
+    }
+
+    public long remainingLimit(int card) {
+        return cardLimits[card] - fixedCash[card] - splitDue[card] + pointsOnCard[card];
+    }
+}
@@ -0,0 +1,393 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Exact alternative to PaymentOptimizer: depth-first branch and bound over one option per order,
+// pruned with min(sum of best discounts, Lagrangian bound). Stops at the time budget and then
+// reports the best plan set so far together with the bound of everything left unexplored. The
+// greedy and the dual-price plans are among the starting incumbents, so the result is never
+// worse than either of them, even when the budget runs out early. Besides the search, the
+// dual-price pass, the bound and the polishing of starting incumbents stop at the budget, and
+// once it has passed the dual-price pass and the price-based incumbents are skipped. Not covered
+// are the greedy pass and the setup that is linear in the batch (the options of every order, the
+// branching order, taking over the starting plans), so on very large batches a run can take a
+// few seconds longer than the budget.
+public class BranchAndBoundSolver implements PaymentSolver {
+
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofSeconds(5);
+
+    private static final int DEADLINE_CHECK_INTERVAL = 1 << 12;
+    private static final int SUBGRADIENT_ITERATIONS = 1_000;
+    private static final int POLISH_PASSES = 3;
+    private static final double[] SEED_PRICE_SCALES = {1.0, 1.1, 1.25, 1.5, 2.0, 3.0};
+
+    private final PaymentMethodRegistry registry;
+
+    public BranchAndBoundSolver(List<PaymentMethod> allPaymentMethods) {
+        this(new PaymentMethodRegistry(allPaymentMethods));
+    }
+
+    public BranchAndBoundSolver(PaymentMethodRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public List<PaymentPlan> optimizePayments(List<Order> orders) {
+        OptimizationResult result = solve(orders, DEFAULT_TIME_BUDGET);
+        if (result.getUnpaidOrders() > 0) {
+            Set<String> paid = result.getPlans().stream().map(PaymentPlan::getOrderId).collect(Collectors.toSet());
+            System.err.println("Warning: Not all orders were processed. Unpaid order IDs: " +
+                    orders.stream().map(Order::getOrderId).filter(id -> !paid.contains(id)).collect(Collectors.joining(", ")));
+        }
+        return result.getPlans();
+    }
+
+    public OptimizationResult solve(List<Order> orders, Duration timeBudget) {
+        long start = System.nanoTime();
+        return solve(orders, start, timeBudget.toNanos(), new PaymentOptimizer(registry.getMethods()).optimizeQuietly(orders));
+    }
+
+    // starts from greedy plans the caller already has, e.g. those of TieredSolver's safety net
+    OptimizationResult solve(List<Order> orders, Duration timeBudget, List<PaymentPlan> greedyPlans) {
+        return solve(orders, System.nanoTime(), timeBudget.toNanos(), greedyPlans);
+    }
+
+    private OptimizationResult solve(List<Order> orders, long start, long budgetNanos, List<PaymentPlan> greedyPlans) {
+        List<List<PaymentPlan>> startingPlans = new ArrayList<>(List.of(greedyPlans));
+        long left = budgetNanos - (System.nanoTime() - start);
+        if (left > 0) {
+            startingPlans.add(new DualPriceOptimizer(registry).optimizeQuietly(orders, left));
+        }
+
+        PaymentProblem problem = new PaymentProblem(registry, orders);
+        Search search = new Search(problem, start, budgetNanos);
+        search.run(startingPlans);
+
+        int[] assignment = search.bestAssignment;
+        long objective = search.bestObjective;
+        int unpaid = problem.countUnpaid(assignment);
+        long discount = objective + unpaid * problem.getUnpaidPenalty();
+
+        return new OptimizationResult(
+                problem.buildPlans(assignment),
+                discount,
+                unpaid,
+                objective,
+                search.upperBound,
+                !search.timedOut || search.upperBound <= objective,
+                search.nodes,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static final class Search {
+        private final PaymentProblem problem;
+        private final AllocationState state;
+        private final LagrangianRelaxation relaxation;
+        private final long start;
+        private final long budgetNanos;
+
+        // orders in branching order and their options, best reduced value first
+        private final int[] sequence;
+        private final int[][] branchOptions;
+        private final long[][] branchDiscounts;
+        private final boolean[] sameAsPrevious;
+        private final long[] suffixMaxDiscount;
+        private final double[] suffixReduced;
+
+        private final int[] chosenIndex;
+        private final int[] nextIndex;
+        private final long[] prefixObjective;
+        private long currentObjective;
+
+        private int[] bestAssignment;
+        private long bestObjective = Long.MIN_VALUE;
+        private long upperBound;
+        private long nodes;
+        private boolean timedOut;
+
+        Search(PaymentProblem problem, long start, long budgetNanos) {
+            this.problem = problem;
+            this.state = new AllocationState(problem);
+            this.relaxation = new LagrangianRelaxation(problem);
+            this.start = start;
+            this.budgetNanos = budgetNanos;
+            // pricing may use a quarter of what is left of the budget, the rest belongs to the search
+            relaxation.optimize(SUBGRADIENT_ITERATIONS, Math.max(0L, timeLeft()) / 4);
+
+            int n = problem.size();
+            long[] maxDiscount = new long[n];
+            for (int i = 0; i < n; i++) {
+                for (int option : problem.optionsOf(i)) {
+                    maxDiscount[i] = Math.max(maxDiscount[i], problem.discount(i, option));
+                }
+            }
+
+            // most valuable orders first; identical orders end up next to each other
+            this.sequence = IndexSort.sorted(n, (left, right) -> {
+                if (maxDiscount[left] != maxDiscount[right]) return Long.compare(maxDiscount[right], maxDiscount[left]);
+                if (problem.value(left) != problem.value(right)) return Long.compare(problem.value(right), problem.value(left));
+                return Long.compare(problem.promotionMask(left), problem.promotionMask(right));
+            });
+
+            this.branchOptions = new int[n][];
+            this.branchDiscounts = new long[n][];
+            this.sameAsPrevious = new boolean[n];
+            this.suffixMaxDiscount = new long[n + 1];
+            this.suffixReduced = new double[n + 1];
+
+            for (int depth = 0; depth < n; depth++) {
+                int order = sequence[depth];
+                int[] options = problem.optionsOf(order);
+                double[] reduced = new double[options.length];
+                long[] discounts = new long[options.length];
+                for (int k = 0; k < options.length; k++) {
+                    reduced[k] = relaxation.reducedValue(order, options[k]);
+                    discounts[k] = problem.discount(order, options[k]);
+                }
+                int[] byValue = IndexSort.sorted(options.length, (left, right) -> {
+                    int byReduced = Double.compare(reduced[right], reduced[left]);
+                    if (byReduced != 0) return byReduced;
+                    if (discounts[left] != discounts[right]) return Long.compare(discounts[right], discounts[left]);
+                    return Integer.compare(options[left], options[right]);
+                });
+                branchOptions[depth] = new int[options.length];
+                branchDiscounts[depth] = new long[options.length];
+                for (int k = 0; k < options.length; k++) {
+                    branchOptions[depth][k] = options[byValue[k]];
+                    branchDiscounts[depth][k] = discounts[byValue[k]];
+                }
+                sameAsPrevious[depth] = depth > 0
+                        && problem.value(order) == problem.value(sequence[depth - 1])
+                        && problem.promotionMask(order) == problem.promotionMask(sequence[depth - 1]);
+            }
+            for (int depth = n - 1; depth >= 0; depth--) {
+                suffixMaxDiscount[depth] = suffixMaxDiscount[depth + 1] + maxDiscount[sequence[depth]];
+                suffixReduced[depth] = suffixReduced[depth + 1] + relaxation.bestReducedValue(sequence[depth]);
+            }
+
+            this.chosenIndex = new int[n];
+            this.nextIndex = new int[n + 1];
+            this.prefixObjective = new long[n];
+        }
+
+        void run(List<List<PaymentPlan>> startingPlans) {
+            int n = sequence.length;
+            int depth = 0;
+            // the starting plans are always taken, so there is an incumbent however short the budget
+            for (double priceScale : SEED_PRICE_SCALES) {
+                if (timeLeft() <= 0) break;
+                seedIncumbent(priceScale);
+            }
+            for (List<PaymentPlan> plans : startingPlans) {
+                seedFromPlans(plans);
+            }
+
+            while (depth >= 0) {
+                if (depth == n) {
+                    if (currentObjective > bestObjective) {
+                        recordIncumbent();
+                    }
+                    depth--;
+                    if (depth >= 0) undo(depth);
+                    continue;
+                }
+
+                if ((++nodes & (DEADLINE_CHECK_INTERVAL - 1)) == 0 && timeLeft() < 0) {
+                    timedOut = true;
+                    upperBound = boundOfUnexplored(depth);
+                    return;
+                }
+
+                if (descend(depth)) {
+                    depth++;
+                    if (depth < n) {
+                        nextIndex[depth] = sameAsPrevious[depth] ? chosenIndex[depth - 1] : 0;
+                    }
+                } else {
+                    depth--;
+                    if (depth >= 0) undo(depth);
+                }
+            }
+            upperBound = bestObjective;
+        }
+
+        private long timeLeft() {
+            return budgetNanos - (System.nanoTime() - start);
+        }
+
+        private boolean descend(int depth) {
+            int order = sequence[depth];
+            int[] options = branchOptions[depth];
+            while (nextIndex[depth] < options.length) {
+                int index = nextIndex[depth]++;
+                int option = options[index];
+                if (!state.canAdd(order, option)) continue;
+
+                long discount = branchDiscounts[depth][index];
+                state.add(order, option);
+                if (currentObjective + discount + bound(depth + 1) <= bestObjective) {
+                    state.remove(order, option);
+                    continue;
+                }
+
+                chosenIndex[depth] = index;
+                prefixObjective[depth] = currentObjective;
+                currentObjective += discount;
+                return true;
+            }
+            return false;
+        }
+
+        private void undo(int depth) {
+            state.remove(sequence[depth], branchOptions[depth][chosenIndex[depth]]);
+            currentObjective = prefixObjective[depth];
+        }
+
+        private long bound(int depth) {
+            double lagrangian = suffixReduced[depth] + relaxation.residualValue(state);
+            // keep the bound valid despite rounding in the double sums
+            long lagrangianBound = (long) Math.floor(lagrangian + Math.abs(lagrangian) * 1e-9 + 1e-6);
+            return Math.min(suffixMaxDiscount[depth], lagrangianBound);
+        }
+
+        // one greedy pass in branching order, so the search starts from a reasonable incumbent
+        private void seedIncumbent(double priceScale) {
+            int n = sequence.length;
+            int[] assignment = new int[n];
+            long objective = 0L;
+
+            for (int depth = 0; depth < n; depth++) {
+                int order = sequence[depth];
+                int bestOption = PaymentProblem.option(PaymentProblem.UNPAID, 0);
+                double bestValue = Double.NEGATIVE_INFINITY;
+                long bestRoom = Long.MIN_VALUE;
+                for (int option : branchOptions[depth]) {
+                    if (!state.canAdd(order, option)) continue;
+                    double value = relaxation.reducedValue(order, option, priceScale);
+                    // near ties (typically the same split on different cards) go to the card with more room left
+                    double tolerance = Math.abs(value) * 1e-9;
+                    long room = problem.isSplit(option) ? state.remainingLimit(PaymentProblem.methodOf(option)) : Long.MIN_VALUE;
+                    if (value > bestValue + tolerance || (value >= bestValue - tolerance && room > bestRoom)) {
+                        bestValue = value;
+                        bestOption = option;
+                        bestRoom = room;
+                    }
+                }
+                state.add(order, bestOption);
+                assignment[order] = bestOption;
+                objective += problem.discount(order, bestOption);
+            }
+            offerIncumbent(assignment, objective);
+        }
+
+        // plans of another solver as an incumbent; a plan that matches no option or does not fit
+        // next to the others leaves its order unpaid until polish finds it something that fits
+        private void seedFromPlans(List<PaymentPlan> plans) {
+            Map<String, ArrayDeque<PaymentPlan>> plansById = new HashMap<>();
+            for (PaymentPlan plan : plans) {
+                plansById.computeIfAbsent(plan.getOrderId(), id -> new ArrayDeque<>()).add(plan);
+            }
+
+            int[] assignment = new int[sequence.length];
+            long objective = 0L;
+            for (int order = 0; order < assignment.length; order++) {
+                ArrayDeque<PaymentPlan> queue = plansById.get(problem.getOrders().get(order).getOrderId());
+                PaymentPlan plan = queue != null ? queue.poll() : null;
+                int option = plan != null ? problem.optionOf(order, plan) : -1;
+                if (option < 0 || !state.canAdd(order, option)) {
+                    option = PaymentProblem.option(PaymentProblem.UNPAID, 0);
+                }
+                state.add(order, option);
+                assignment[order] = option;
+                objective += problem.discount(order, option);
+            }
+            offerIncumbent(assignment, objective);
+        }
+
+        // expects the assignment added to the state; polishes it, takes it out again and keeps it if it is the best so far
+        private void offerIncumbent(int[] assignment, long objective) {
+            objective += polish(assignment);
+            for (int order = 0; order < assignment.length; order++) {
+                state.remove(order, assignment[order]);
+            }
+
+            if (objective > bestObjective) {
+                bestObjective = objective;
+                bestAssignment = assignment;
+            }
+        }
+
+        // moves single orders to a better option while something still fits, e.g. points left
+        // over after the greedy pass upgrade a partial payment to a full points payment; stops
+        // with the moves made so far when the budget is up
+        private long polish(int[] assignment) {
+            long gained = 0L;
+            boolean improved = true;
+            for (int pass = 0; pass < POLISH_PASSES && improved; pass++) {
+                improved = false;
+                for (int depth = 0; depth < sequence.length; depth++) {
+                    if ((depth & (DEADLINE_CHECK_INTERVAL - 1)) == 0 && timeLeft() < 0) return gained;
+                    int order = sequence[depth];
+                    int current = assignment[order];
+                    long currentDiscount = problem.discount(order, current);
+                    state.remove(order, current);
+
+                    int best = current;
+                    long bestDiscount = currentDiscount;
+                    for (int option : branchOptions[depth]) {
+                        long discount = problem.discount(order, option);
+                        if (discount > bestDiscount && state.canAdd(order, option)) {
+                            best = option;
+                            bestDiscount = discount;
+                        }
+                    }
+                    state.add(order, best);
+                    if (best != current) {
+                        assignment[order] = best;
+                        gained += bestDiscount - currentDiscount;
+                        improved = true;
+                    }
+                }
+            }
+            return gained;
+        }
+
+        private void recordIncumbent() {
+            bestAssignment = new int[sequence.length];
+            for (int depth = 0; depth < sequence.length; depth++) {
+                bestAssignment[sequence[depth]] = branchOptions[depth][chosenIndex[depth]];
+            }
+            bestObjective = currentObjective;
+        }
+
+        // unwinds the current path, bounding every sibling that has not been tried yet
+        private long boundOfUnexplored(int depth) {
+            long bound = bestObjective;
+            for (int level = depth; level >= 0; level--) {
+                if (level < depth) undo(level);
+
+                int order = sequence[level];
+                int[] options = branchOptions[level];
+                for (int index = nextIndex[level]; index < options.length; index++) {
+                    int option = options[index];
+                    if (!state.canAdd(order, option)) continue;
+                    state.add(order, option);
+                    bound = Math.max(bound, currentObjective + branchDiscounts[level][index] + bound(level + 1));
+                    state.remove(order, option);
+                }
+            }
+            return bound;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.service;
+
+import lombok.Getter;
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.util.List;
+
+// Inputs and plans of one run, enough to answer the same inputs again or to re-optimize only
+// what a later delta touches. Orders without a plan are the unpaid ones. The points strategy is part
+// of the key: plans from one strategy are no answer for a run asked to use the other.
+@Getter
+public class CachedSolution {
+
+    private final List<PaymentMethod> methods;
+
+    private final List<Order> orders;
+
+    private final List<PaymentPlan> plans;
+
+    private final PointsStrategy pointsStrategy;
+
+    private final String methodsKey;
+
+    private final String ordersKey;
+
+    public CachedSolution(List<PaymentMethod> methods, List<Order> orders, List<PaymentPlan> plans, PointsStrategy pointsStrategy) {
+        this.methods = List.copyOf(methods);
+        this.orders = List.copyOf(orders);
+        this.plans = List.copyOf(plans);
+        this.pointsStrategy = pointsStrategy;
+        this.methodsKey = InputFingerprint.ofMethods(methods);
+        this.ordersKey = InputFingerprint.ofOrders(orders);
+    }
+
+    public boolean matches(List<PaymentMethod> currentMethods, List<Order> currentOrders, PointsStrategy currentPointsStrategy) {
+        return pointsStrategy == currentPointsStrategy
+                && methodsKey.equals(InputFingerprint.ofMethods(currentMethods))
+                && ordersKey.equals(InputFingerprint.ofOrders(currentOrders));
+    }
+}
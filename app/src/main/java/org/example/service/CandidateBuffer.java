@@ -0,0 +1,68 @@
+package org.example.service;
+
+import java.util.Arrays;
+
+// Candidate plans of one order as parallel primitive arrays, reused from order to order.
+// Grows when an order has more candidates than ever before, otherwise never allocates.
+final class CandidateBuffer {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private int[] method = new int[INITIAL_CAPACITY];
+    private long[] points = new long[INITIAL_CAPACITY];
+    private long[] cash = new long[INITIAL_CAPACITY];
+    private long[] discount = new long[INITIAL_CAPACITY];
+    private long[] finalAmount = new long[INITIAL_CAPACITY];
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(int methodOrdinal, long pointsCents, long cashCents, long discountCents, long finalAmountCents) {
+        if (size == method.length) {
+            int capacity = size * 2;
+            method = Arrays.copyOf(method, capacity);
+            points = Arrays.copyOf(points, capacity);
+            cash = Arrays.copyOf(cash, capacity);
+            discount = Arrays.copyOf(discount, capacity);
+            finalAmount = Arrays.copyOf(finalAmount, capacity);
+        }
+        method[size] = methodOrdinal;
+        points[size] = pointsCents;
+        cash[size] = cashCents;
+        discount[size] = discountCents;
+        finalAmount[size] = finalAmountCents;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int method(int index) {
+        return method[index];
+    }
+
+    long points(int index) {
+        return points[index];
+    }
+
+    long cash(int index) {
+        return cash[index];
+    }
+
+    long discount(int index) {
+        return discount[index];
+    }
+
+    long finalAmount(int index) {
+        return finalAmount[index];
+    }
+
+    // PaymentCalculator.PLAN_PREFERENCE on the buffered fields
+    boolean preferred(int index, int other) {
+        return PaymentCalculator.comparePreference(discount[index], points[index], finalAmount[index],
+                discount[other], points[other], finalAmount[other]) < 0;
+    }
+}
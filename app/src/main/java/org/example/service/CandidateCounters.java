@@ -0,0 +1,66 @@
+package org.example.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Running totals of generated candidates and limit rejections. LongAdder keeps increments cheap
+// and allocation-free when plans are generated from several threads.
+public class CandidateCounters {
+
+    private static final LimitCheck[] CHECKS = LimitCheck.values();
+    // ints per tally recorded outside the counters: generated candidates, then rejections by
+    // LimitCheck ordinal
+    static final int TALLY_SLOTS = 1 + CHECKS.length;
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[CHECKS.length];
+
+    public CandidateCounters() {
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    public void recordGenerated(int candidates) {
+        generated.add(candidates);
+    }
+
+    public void recordRejected(LimitCheck check) {
+        rejected[check.ordinal()].increment();
+    }
+
+    // adds the tally at tallies[offset..offset + TALLY_SLOTS)
+    void addTally(int[] tallies, int offset) {
+        generated.add(tallies[offset]);
+        for (int check = 0; check < CHECKS.length; check++) {
+            if (tallies[offset + 1 + check] != 0) {
+                rejected[check].add(tallies[offset + 1 + check]);
+            }
+        }
+    }
+
+    public long generated() {
+        return generated.sum();
+    }
+
+    public long rejected(LimitCheck check) {
+        return rejected[check.ordinal()].sum();
+    }
+
+    public long totalRejected() {
+        long total = 0L;
+        for (LongAdder adder : rejected) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    public Map<LimitCheck, Long> rejectedByCheck() {
+        Map<LimitCheck, Long> byCheck = new EnumMap<>(LimitCheck.class);
+        for (LimitCheck check : CHECKS) {
+            byCheck.put(check, rejected(check));
+        }
+        return byCheck;
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static org.example.service.PaymentMethodRegistry.POINTS_METHOD_ID;
+
+// The card promotion -> full points -> remaining orders passes of PaymentOptimizer on OrderClasses
+// instead of single orders. A class takes as many of its unpaid members as a card or the points
+// still cover in one step; in the remaining pass PaymentCalculator is asked once per class and
+// its plan repeated while the limits the plan draws on stay above the order value, where the next
+// member would get the same plan anyway. Ties between different classes are broken by class
+// rather than by input position, so the totals can differ slightly from the per-order greedy.
+public class ClassGreedyOptimizer implements PaymentSolver {
+
+    private final PaymentMethodRegistry registry;
+    private final PaymentCalculator paymentCalculator;
+    private final PointsStrategy pointsStrategy;
+
+    public ClassGreedyOptimizer(List<PaymentMethod> allPaymentMethods) {
+        this(new PaymentMethodRegistry(allPaymentMethods), PointsStrategy.SMALLEST_FIRST);
+    }
+
+    public ClassGreedyOptimizer(PaymentMethodRegistry registry, PointsStrategy pointsStrategy) {
+        this.registry = registry;
+        this.paymentCalculator = new PaymentCalculator(registry);
+        this.pointsStrategy = pointsStrategy;
+    }
+
+    @Override
+    public List<PaymentPlan> optimizePayments(List<Order> orders) {
+        long[] currentLimits = registry.newLimitLedger();
+        OrderClasses classes = OrderClasses.of(orders, registry);
+        Assignment assignment = new Assignment(classes, orders.size());
+
+        promotionPass(classes, assignment, currentLimits);
+        if (registry.hasPointsMethod() && pointsStrategy == PointsStrategy.KNAPSACK) {
+            pointsAllocation(classes, assignment, currentLimits, orders);
+        } else if (registry.hasPointsMethod()) {
+            pointsPass(classes, assignment, currentLimits);
+        }
+        remainingPass(classes, assignment, currentLimits);
+
+        if (assignment.plans.size() != orders.size()) {
+            StringJoiner unpaid = new StringJoiner(", ");
+            for (int k = 0; k < classes.size(); k++) {
+                for (int j = assignment.paid[k]; j < classes.count(k); j++) {
+                    unpaid.add(classes.member(k, j).getOrderId());
+                }
+            }
+            System.err.println("Warning: Not all orders were processed. Unpaid order IDs: " + unpaid);
+        }
+        return assignment.plans;
+    }
+
+    // (class, promoted method) pairs by higher discount, then smaller orders, as in PaymentOptimizer
+    private void promotionPass(OrderClasses classes, Assignment assignment, long[] currentLimits) {
+        int pairs = 0;
+        for (int k = 0; k < classes.size(); k++) {
+            pairs += Long.bitCount(classes.promotionMask(k));
+        }
+        int[] pairClass = new int[pairs];
+        int[] pairCard = new int[pairs];
+        long[] pairDiscount = new long[pairs];
+        int pair = 0;
+        for (int k = 0; k < classes.size(); k++) {
+            for (long remaining = classes.promotionMask(k); remaining != 0; remaining &= remaining - 1) {
+                pairClass[pair] = k;
+                pairCard[pair] = Long.numberOfTrailingZeros(remaining);
+                pairDiscount[pair] = Money.percentOf(classes.valueCents(k), registry.discountBasisPoints(pairCard[pair]));
+                pair++;
+            }
+        }
+
+        int[] byPreference = IndexSort.sorted(pairs, (left, right) -> pairDiscount[left] != pairDiscount[right]
+                ? Long.compare(pairDiscount[right], pairDiscount[left])
+                : Long.compare(classes.valueCents(pairClass[left]), classes.valueCents(pairClass[right])));
+        for (int p : byPreference) {
+            int k = pairClass[p];
+            int card = pairCard[p];
+            long value = classes.valueCents(k);
+            long cost = value - pairDiscount[p];
+            int take = affordable(assignment.unpaid(k), currentLimits[card], cost);
+            if (take == 0) continue;
+
+            assignment.give(k, take, new PaymentPlan(null, registry.idOf(card), value, 0L, cost, pairDiscount[p], cost));
+            currentLimits[card] -= take * cost;
+        }
+    }
+
+    // smaller orders first, as in PaymentOptimizer
+    private void pointsPass(OrderClasses classes, Assignment assignment, long[] currentLimits) {
+        int pointsOrdinal = registry.getPointsOrdinal();
+        long basisPoints = registry.discountBasisPoints(pointsOrdinal);
+        int[] bySize = IndexSort.sorted(classes.size(), (left, right) -> Long.compare(classes.valueCents(left), classes.valueCents(right)));
+        for (int k : bySize) {
+            long value = classes.valueCents(k);
+            long discount = Money.percentOf(value, basisPoints);
+            long cost = value - discount;
+            int take = affordable(assignment.unpaid(k), currentLimits[pointsOrdinal], cost);
+            if (take == 0) continue;
+
+            assignment.give(k, take, new PaymentPlan(null, POINTS_METHOD_ID, value, cost, 0L, discount, cost));
+            currentLimits[pointsOrdinal] -= take * cost;
+        }
+    }
+
+    // the knapsack decides per order, so the unpaid members are listed one by one in input order;
+    // whichever member a plan names, it goes to the next unpaid member of the same class
+    private void pointsAllocation(OrderClasses classes, Assignment assignment, long[] currentLimits, List<Order> orders) {
+        int[] classOfPosition = new int[orders.size()];
+        Arrays.fill(classOfPosition, -1);
+        for (int k = 0; k < classes.size(); k++) {
+            for (int j = assignment.paid[k]; j < classes.count(k); j++) {
+                classOfPosition[classes.memberPosition(k, j)] = k;
+            }
+        }
+        List<Order> open = new ArrayList<>();
+        Map<String, Integer> classOf = new HashMap<>();
+        for (int i = 0; i < classOfPosition.length; i++) {
+            if (classOfPosition[i] < 0) continue;
+            open.add(orders.get(i));
+            classOf.put(orders.get(i).getOrderId(), classOfPosition[i]);
+        }
+        for (PaymentPlan plan : new PointsAllocator(registry).allocate(open, currentLimits)) {
+            assignment.give(classOf.get(plan.getOrderId()), 1, plan);
+        }
+    }
+
+    // larger orders first, as in PaymentOptimizer
+    private void remainingPass(OrderClasses classes, Assignment assignment, long[] currentLimits) {
+        int pointsOrdinal = registry.getPointsOrdinal();
+        int[] byValue = IndexSort.sorted(classes.size(), (left, right) -> Long.compare(classes.valueCents(right), classes.valueCents(left)));
+        for (int k : byValue) {
+            long value = classes.valueCents(k);
+            while (assignment.unpaid(k) > 0) {
+                PaymentPlan plan = paymentCalculator.selectBestPlan(classes.representative(k), classes.promotionMask(k), currentLimits);
+                if (plan == null) break;
+
+                long points = plan.getPointsAmountCents();
+                int card = registry.cashOrdinal(plan);
+                long cash = card != PaymentMethodRegistry.UNKNOWN_METHOD ? plan.getCashAmountCents() : 0L;
+
+                // PaymentCalculator gives the same plans while every limit that changed still covers
+                // the whole order, so the plan holds for as many members as keep it that way
+                long repeats = assignment.unpaid(k) - 1;
+                if (points > 0) repeats = Math.min(repeats, coveringRepeats(currentLimits[pointsOrdinal], points, value));
+                if (cash > 0) repeats = Math.min(repeats, coveringRepeats(currentLimits[card], cash, value));
+                int take = (int) repeats + 1;
+
+                assignment.give(k, take, plan);
+                if (points > 0) currentLimits[pointsOrdinal] -= take * points;
+                if (cash > 0) currentLimits[card] -= take * cash;
+            }
+        }
+    }
+
+    // members out of unpaid that fit into limit at cost each
+    private static int affordable(int unpaid, long limit, long cost) {
+        if (unpaid == 0 || limit < cost) return 0;
+        return cost == 0 ? unpaid : (int) Math.min(unpaid, limit / cost);
+    }
+
+    // members after the first that are planned while the limit still covers the order value
+    private static long coveringRepeats(long limit, long usage, long value) {
+        return limit < value ? 0L : (limit - value) / usage;
+    }
+
+    // plans handed out per class, to its members in input order
+    private static final class Assignment {
+        private final OrderClasses classes;
+        private final int[] paid;
+        private final List<PaymentPlan> plans;
+
+        Assignment(OrderClasses classes, int orders) {
+            this.classes = classes;
+            this.paid = new int[classes.size()];
+            this.plans = new ArrayList<>(orders);
+        }
+
+        int unpaid(int k) {
+            return classes.count(k) - paid[k];
+        }
+
+        void give(int k, int count, PaymentPlan plan) {
+            for (int j = 0; j < count; j++) {
+                Order member = classes.member(k, paid[k]++);
+                plans.add(new PaymentPlan(member.getOrderId(), plan.getPaymentMethodId(), plan.getTotalOrderValueCents(),
+                        plan.getPointsAmountCents(), plan.getCashAmountCents(), plan.getDiscountCents(), plan.getFinalAmountCents()));
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.service;
+
+import org.example.model.PaymentPlan;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Thread-safe counterpart of the long[] limit ledger. Every method has its own slot, updated by
+// compare-and-set only, so reservations on different methods never contend.
+public class ConcurrentLimitLedger {
+
+    // one 64-byte cache line per method, so hot slots do not false-share
+    private static final int STRIDE = 8;
+
+    private final PaymentMethodRegistry registry;
+    private final AtomicLongArray limits;
+
+    public ConcurrentLimitLedger(PaymentMethodRegistry registry) {
+        this.registry = registry;
+        this.limits = new AtomicLongArray(registry.size() * STRIDE);
+        for (int method = 0; method < registry.size(); method++) {
+            limits.set(method * STRIDE, registry.initialLimit(method));
+        }
+    }
+
+    public long available(int method) {
+        return limits.get(method * STRIDE);
+    }
+
+    // current limits in the layout PaymentCalculator expects; slots are read one by one,
+    // so the copy is only a hint and reservations are re-checked by tryReserve
+    public long[] snapshot() {
+        long[] snapshot = new long[registry.size()];
+        for (int method = 0; method < snapshot.length; method++) {
+            snapshot[method] = available(method);
+        }
+        return snapshot;
+    }
+
+    // takes the plan's points and cash, or nothing when either no longer fits
+    public boolean tryReserve(PaymentPlan plan) {
+        long points = plan.getPointsAmountCents();
+        int cashMethod = registry.cashOrdinal(plan);
+        if (points > 0 && !tryTake(registry.getPointsOrdinal(), points)) {
+            return false;
+        }
+        if (cashMethod != PaymentMethodRegistry.UNKNOWN_METHOD && !tryTake(cashMethod, plan.getCashAmountCents())) {
+            if (points > 0) give(registry.getPointsOrdinal(), points);
+            return false;
+        }
+        return true;
+    }
+
+    public void release(PaymentPlan plan) {
+        if (plan.getPointsAmountCents() > 0) {
+            give(registry.getPointsOrdinal(), plan.getPointsAmountCents());
+        }
+        int cashMethod = registry.cashOrdinal(plan);
+        if (cashMethod != PaymentMethodRegistry.UNKNOWN_METHOD) {
+            give(cashMethod, plan.getCashAmountCents());
+        }
+    }
+
+    private boolean tryTake(int method, long amount) {
+        int slot = method * STRIDE;
+        while (true) {
+            long current = limits.get(slot);
+            if (current < amount) return false;
+            if (limits.compareAndSet(slot, current, current - amount)) return true;
+        }
+    }
+
+    private void give(int method, long amount) {
+        limits.addAndGet(method * STRIDE, amount);
+    }
+}
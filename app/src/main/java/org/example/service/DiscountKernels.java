@@ -0,0 +1,52 @@
+package org.example.service;
+
+import org.example.model.Money;
+
+// Batch versions of the per-order money arithmetic, one method at a time over a whole column of
+// order values. Plain counted loops over primitive arrays: the JIT turns the division by the
+// constant 10000 into a multiplication and unrolls them, and the subtraction is vectorised.
+// Results are exactly those of Money.percentOf.
+public final class DiscountKernels {
+
+    private static final long PERCENT_DIVISOR = 100L * 100L;
+
+    private DiscountKernels() {
+    }
+
+    // out[i] = Money.percentOf(cents[i], basisPoints)
+    public static long[] percentOf(long[] cents, long basisPoints, long[] out) {
+        for (int i = 0; i < cents.length; i++) {
+            out[i] = percentOf(cents[i], basisPoints);
+        }
+        return out;
+    }
+
+    // out[i] = Money.percentOf(cents[i], basisPoints[i]), e.g. for (order, card) pairs
+    public static long[] percentOf(long[] cents, long[] basisPoints, long[] out) {
+        for (int i = 0; i < cents.length; i++) {
+            out[i] = percentOf(cents[i], basisPoints[i]);
+        }
+        return out;
+    }
+
+    private static long percentOf(long cents, long basisPoints) {
+        long product = Math.multiplyExact(cents, basisPoints);
+        if (product < 0) return Money.divideHalfEven(product, PERCENT_DIVISOR);
+
+        long quotient = product / PERCENT_DIVISOR;
+        long twiceRemainder = (product - quotient * PERCENT_DIVISOR) * 2;
+        // HALF_EVEN: up above the half, and at the half only from an odd quotient
+        if (twiceRemainder > PERCENT_DIVISOR || (twiceRemainder == PERCENT_DIVISOR && (quotient & 1) != 0)) {
+            quotient++;
+        }
+        return quotient;
+    }
+
+    // out[i] = minuend[i] - subtrahend[i], e.g. the cost of every order after its discount
+    public static long[] subtract(long[] minuend, long[] subtrahend, long[] out) {
+        for (int i = 0; i < minuend.length; i++) {
+            out[i] = minuend[i] - subtrahend[i];
+        }
+        return out;
+    }
+}
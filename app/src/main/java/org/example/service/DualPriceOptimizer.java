@@ -0,0 +1,318 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.example.service.PaymentMethodRegistry.POINTS_METHOD_ID;
+
+// Scalable alternative to PaymentOptimizer for very large batches. Every method's limit gets a price;
+// each order independently picks the candidate from PaymentCalculator with the best
+// discount - price * usage, prices of over-subscribed limits go up, and the last round is
+// turned into a feasible plan set by committing orders one by one against the real limits.
+public class DualPriceOptimizer implements PaymentSolver {
+
+    public static final int DEFAULT_ITERATIONS = 40;
+
+    private static final int REPAIR_INTERVAL = 10;
+    private static final long PARTIAL_POINTS_DISCOUNT_BASIS_POINTS = 1_000;
+    private static final double INITIAL_STEP = 0.5;
+    private static final double STEP_DECAY = 0.9;
+
+    private final PaymentMethodRegistry registry;
+    private final PaymentCalculator paymentCalculator;
+
+    public DualPriceOptimizer(List<PaymentMethod> allPaymentMethods) {
+        this(new PaymentMethodRegistry(allPaymentMethods));
+    }
+
+    public DualPriceOptimizer(PaymentMethodRegistry registry) {
+        this.registry = registry;
+        this.paymentCalculator = new PaymentCalculator(registry);
+    }
+
+    @Override
+    public List<PaymentPlan> optimizePayments(List<Order> orders) {
+        return optimizePayments(orders, DEFAULT_ITERATIONS);
+    }
+
+    public List<PaymentPlan> optimizePayments(List<Order> orders, int iterations) {
+        PaymentPlan[] committed = solve(orders, iterations, Long.MAX_VALUE);
+        List<PaymentPlan> plans = Arrays.stream(committed).filter(Objects::nonNull).toList();
+        if (plans.size() != orders.size()) {
+            System.err.println("Warning: Not all orders were processed. Unpaid order IDs: " +
+                    IntStream.range(0, orders.size()).filter(i -> committed[i] == null)
+                            .mapToObj(i -> orders.get(i).getOrderId()).collect(Collectors.joining(", ")));
+        }
+        return plans;
+    }
+
+    // without the warning about unpaid orders, for solvers that only start from these plans; the
+    // pricing rounds stop after timeLimitNanos and the prices reached so far are repaired
+    List<PaymentPlan> optimizeQuietly(List<Order> orders, long timeLimitNanos) {
+        return Arrays.stream(solve(orders, DEFAULT_ITERATIONS, timeLimitNanos)).filter(Objects::nonNull).toList();
+    }
+
+    // the plan of every order by position, null for the unpaid ones
+    private PaymentPlan[] solve(List<Order> orders, int iterations, long timeLimitNanos) {
+        long start = System.nanoTime();
+        long[] promotionMasks = registry.promotionMasks(orders);
+        Candidates candidates = new Candidates(orders, promotionMasks);
+
+        double[] prices = new double[registry.size()];
+        double ceiling = priceCeiling();
+        double step = INITIAL_STEP * ceiling;
+        int[] chosen = new int[orders.size()];
+        PaymentPlan[] best = null;
+
+        for (int iteration = 0; iteration < iterations && System.nanoTime() - start < timeLimitNanos; iteration++) {
+            double[] usage = candidates.chooseAll(prices, chosen);
+            if (iteration > 0 && iteration % REPAIR_INTERVAL == 0) {
+                best = better(best, repair(orders, promotionMasks, prices, candidates, chosen));
+            }
+
+            double norm = 0.0;
+            double[] gradient = new double[prices.length];
+            for (int method = 0; method < prices.length; method++) {
+                gradient[method] = usage[method] - registry.initialLimit(method);
+                if (gradient[method] > 0 || prices[method] > 0) {
+                    norm += gradient[method] * gradient[method];
+                }
+            }
+            if (norm == 0.0) break;
+
+            norm = Math.sqrt(norm);
+            for (int method = 0; method < prices.length; method++) {
+                prices[method] = Math.min(ceiling, Math.max(0.0, prices[method] + step * gradient[method] / norm));
+            }
+            step *= STEP_DECAY;
+        }
+        candidates.chooseAll(prices, chosen);
+        return better(best, repair(orders, promotionMasks, prices, candidates, chosen));
+    }
+
+    // prices oscillate between rounds, so the repaired plan sets are compared the way the exact
+    // solver ranks them: fewer unpaid orders first, then the larger total discount
+    private PaymentPlan[] better(PaymentPlan[] current, PaymentPlan[] candidate) {
+        if (current == null) return candidate;
+        long currentPaid = Arrays.stream(current).filter(Objects::nonNull).count();
+        long candidatePaid = Arrays.stream(candidate).filter(Objects::nonNull).count();
+        if (currentPaid != candidatePaid) return candidatePaid > currentPaid ? candidate : current;
+        return totalDiscount(candidate) > totalDiscount(current) ? candidate : current;
+    }
+
+    private long totalDiscount(PaymentPlan[] plans) {
+        return Arrays.stream(plans).filter(Objects::nonNull).mapToLong(PaymentPlan::getDiscountCents).sum();
+    }
+
+    // no plan earns more than rate / (1 - rate) per cent of limit it uses, so prices above that
+    // only switch a method off; it also sets the scale of the price steps
+    private double priceCeiling() {
+        long maxRate = PARTIAL_POINTS_DISCOUNT_BASIS_POINTS;
+        for (int method = 0; method < registry.size(); method++) {
+            maxRate = Math.max(maxRate, registry.discountBasisPoints(method));
+        }
+        return maxRate >= 10_000 ? 1.0 : (double) maxRate / (10_000 - maxRate);
+    }
+
+    // choices that still fit are committed first, most valuable at the final prices first; the
+    // orders left over then take the best candidate for what is actually left, smallest first,
+    // the split with as many points as are left included
+    private PaymentPlan[] repair(List<Order> orders, long[] promotionMasks, double[] prices, Candidates candidates, int[] chosen) {
+        long[] currentLimits = registry.newLimitLedger();
+        PaymentPlan[] committed = new PaymentPlan[orders.size()];
+
+        int[] commitOrder = IntStream.range(0, orders.size()).boxed()
+                .filter(i -> chosen[i] >= 0)
+                .sorted(Comparator.comparingDouble((Integer i) -> candidates.priceAdjustedValue(chosen[i], prices)).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        for (int i : commitOrder) {
+            if (candidates.fits(chosen[i], currentLimits)) {
+                candidates.charge(chosen[i], currentLimits);
+                committed[i] = candidates.toPlan(orders.get(i), chosen[i]);
+            }
+        }
+
+        int[] leftOver = IntStream.range(0, orders.size()).boxed()
+                .filter(i -> committed[i] == null)
+                .sorted(Comparator.comparingLong((Integer i) -> orders.get(i).getTotalOrderValueCents()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        for (int i : leftOver) {
+            List<PaymentPlan> options = new ArrayList<>(paymentCalculator.generateCandidatePlans(orders.get(i), promotionMasks[i], currentLimits));
+            PaymentPlan largestPointsSplit = largestPointsSplit(orders.get(i), currentLimits);
+            if (largestPointsSplit != null) options.add(largestPointsSplit);
+
+            PaymentPlan best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (PaymentPlan candidate : options) {
+                if (!registry.fits(candidate, currentLimits)) continue;
+                double value = priceAdjustedValue(candidate, prices);
+                if (best == null || value > bestValue || (value == bestValue && PaymentCalculator.PLAN_PREFERENCE.compare(candidate, best) < 0)) {
+                    best = candidate;
+                    bestValue = value;
+                }
+            }
+            if (best != null) {
+                registry.charge(best, currentLimits);
+                committed[i] = best;
+            }
+        }
+
+        return committed;
+    }
+
+    // the 10% points discount paid with all the points left and the rest on the card with the most
+    // room; PaymentCalculator only pairs a card with the smallest points share, so without this an
+    // order can stay unpaid although the points and a card could cover it together. null when no
+    // card has room for the rest
+    private PaymentPlan largestPointsSplit(Order order, long[] currentLimits) {
+        if (!registry.hasPointsMethod()) return null;
+        long value = order.getTotalOrderValueCents();
+        long tenPercent = Money.percentOf(value, PARTIAL_POINTS_DISCOUNT_BASIS_POINTS);
+        long availablePoints = registry.availablePoints(currentLimits);
+        if (tenPercent == 0 || availablePoints < tenPercent) return null;
+
+        long due = value - tenPercent;
+        long points = Math.min(availablePoints, due);
+        long cash = due - points;
+        if (cash == 0) {
+            return new PaymentPlan(order.getOrderId(), POINTS_METHOD_ID, value, points, 0L, tenPercent, points);
+        }
+        int card = -1;
+        for (long remaining = registry.cardMask(); remaining != 0; remaining &= remaining - 1) {
+            int candidate = Long.numberOfTrailingZeros(remaining);
+            if (currentLimits[candidate] >= cash && (card < 0 || currentLimits[candidate] > currentLimits[card])) {
+                card = candidate;
+            }
+        }
+        return card < 0 ? null : new PaymentPlan(order.getOrderId(), registry.idOf(card), value, points, cash, tenPercent, due);
+    }
+
+    private double priceAdjustedValue(PaymentPlan plan, double[] prices) {
+        double value = plan.getDiscountCents();
+        if (plan.getPointsAmountCents() > 0) {
+            value -= prices[registry.getPointsOrdinal()] * plan.getPointsAmountCents();
+        }
+        if (plan.getCashAmountCents() > 0) {
+            value -= prices[registry.ordinalOf(plan.getPaymentMethodId())] * plan.getCashAmountCents();
+        }
+        return value;
+    }
+
+    // candidates of all orders, generated once against the untouched limits straight into flat
+    // columns, so neither this nor the pricing rounds create PaymentPlans; only repair turns the
+    // committed ones into plans. Candidates are generated twice, once to count and once to copy,
+    // which is cheaper than keeping a plan list per order. Duplicate shapes generateCandidatePlans
+    // would drop stay, they never win over their first copy
+    private final class Candidates {
+        private final int[] firstCandidate;
+        private final int[] method;
+        private final long[] points;
+        private final long[] cash;
+        private final long[] discount;
+
+        Candidates(List<Order> orders, long[] promotionMasks) {
+            long[] initialLimits = registry.newLimitLedger();
+            this.firstCandidate = new int[orders.size() + 1];
+            IntStream.range(0, orders.size()).parallel().forEach(i -> firstCandidate[i + 1] =
+                    paymentCalculator.fillCandidates(orders.get(i), promotionMasks[i], initialLimits).size());
+            for (int i = 0; i < orders.size(); i++) {
+                firstCandidate[i + 1] += firstCandidate[i];
+            }
+
+            int total = firstCandidate[orders.size()];
+            this.method = new int[total];
+            this.points = new long[total];
+            this.cash = new long[total];
+            this.discount = new long[total];
+            IntStream.range(0, orders.size()).parallel().forEach(i -> {
+                CandidateBuffer buffer = paymentCalculator.fillCandidates(orders.get(i), promotionMasks[i], initialLimits);
+                int index = firstCandidate[i];
+                for (int candidate = 0; candidate < buffer.size(); candidate++, index++) {
+                    method[index] = buffer.method(candidate);
+                    points[index] = buffer.points(candidate);
+                    cash[index] = buffer.cash(candidate);
+                    discount[index] = buffer.discount(candidate);
+                }
+            });
+        }
+
+        // picks the best candidate of every order at the given prices, returns the total usage per method
+        double[] chooseAll(double[] prices, int[] chosen) {
+            return IntStream.range(0, chosen.length).parallel()
+                    .collect(() -> new double[prices.length],
+                            (usage, i) -> {
+                                int best = bestCandidate(i, prices);
+                                chosen[i] = best;
+                                if (best < 0) return;
+                                if (points[best] > 0) usage[registry.getPointsOrdinal()] += points[best];
+                                if (cash[best] > 0) usage[method[best]] += cash[best];
+                            },
+                            (left, right) -> {
+                                for (int m = 0; m < left.length; m++) {
+                                    left[m] += right[m];
+                                }
+                            });
+        }
+
+        private int bestCandidate(int order, double[] prices) {
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int index = firstCandidate[order]; index < firstCandidate[order + 1]; index++) {
+                double value = priceAdjustedValue(index, prices);
+                if (best < 0 || value > bestValue || (value == bestValue && preferred(index, best))) {
+                    best = index;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+
+        // PaymentCalculator.PLAN_PREFERENCE on the flattened fields
+        private boolean preferred(int index, int other) {
+            return PaymentCalculator.comparePreference(discount[index], points[index], points[index] + cash[index],
+                    discount[other], points[other], points[other] + cash[other]) < 0;
+        }
+
+        double priceAdjustedValue(int index, double[] prices) {
+            double value = discount[index];
+            if (points[index] > 0) value -= prices[registry.getPointsOrdinal()] * points[index];
+            if (cash[index] > 0) value -= prices[method[index]] * cash[index];
+            return value;
+        }
+
+        // cash is always on a card, the points ones carry none
+        boolean fits(int index, long[] limits) {
+            return (points[index] == 0 || registry.availablePoints(limits) >= points[index])
+                    && (cash[index] == 0 || limits[method[index]] >= cash[index]);
+        }
+
+        void charge(int index, long[] limits) {
+            if (points[index] > 0) limits[registry.getPointsOrdinal()] -= points[index];
+            if (cash[index] > 0) limits[method[index]] -= cash[index];
+        }
+
+        PaymentPlan toPlan(Order order, int index) {
+            return new PaymentPlan(
+                    order.getOrderId(),
+                    registry.idOf(method[index]),
+                    order.getTotalOrderValueCents(),
+                    points[index],
+                    cash[index],
+                    discount[index],
+                    points[index] + cash[index]
+            );
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.example.service.PaymentMethodRegistry.POINTS_METHOD_ID;
+
+// Applies an OrderDelta to a cached solution. Plans of orders the delta does not touch are kept and
+// charged to the limit ledger; only added and changed orders, orders that were left unpaid and orders
+// whose plan no longer holds under the current payment methods go through PaymentOptimizer again,
+// against what is left of the limits. The result can differ from a run from scratch.
+public class IncrementalOptimizer {
+
+    // when more than this share of the orders has to be redone, a run from scratch is about as cheap
+    private static final double FULL_RUN_SHARE = 0.5;
+
+    private final PaymentOptimizer optimizer;
+    private final PaymentMethodRegistry registry;
+
+    public IncrementalOptimizer(PaymentOptimizer optimizer) {
+        this.optimizer = optimizer;
+        this.registry = optimizer.getRegistry();
+    }
+
+    public CachedSolution reoptimize(CachedSolution previous, List<Order> currentOrders) {
+        return reoptimize(previous, OrderDelta.between(previous.getOrders(), currentOrders));
+    }
+
+    public CachedSolution reoptimize(CachedSolution previous, OrderDelta delta) {
+        Map<String, Order> changedById = new HashMap<>();
+        delta.getChanged().forEach(order -> changedById.put(order.getOrderId(), order));
+
+        List<Order> orders = new ArrayList<>(previous.getOrders().size() + delta.getAdded().size());
+        for (Order order : previous.getOrders()) {
+            if (delta.getRemovedIds().contains(order.getOrderId())) continue;
+            orders.add(changedById.getOrDefault(order.getOrderId(), order));
+        }
+        orders.addAll(delta.getAdded());
+
+        Set<String> staleMethodIds = staleMethodIds(previous.getMethods());
+        long[] remainingLimits = registry.newLimitLedger();
+        List<PaymentPlan> kept = new ArrayList<>();
+        for (PaymentPlan plan : previous.getPlans()) {
+            if (delta.getRemovedIds().contains(plan.getOrderId()) || changedById.containsKey(plan.getOrderId())) continue;
+            if (usesAny(plan, staleMethodIds)) continue;
+            kept.add(plan);
+            registry.charge(plan, remainingLimits);
+        }
+        kept = releaseOverdrawnLimits(kept, remainingLimits);
+
+        Set<String> skippedIds = new HashSet<>();
+        kept.forEach(plan -> skippedIds.add(plan.getOrderId()));
+        // an order left unpaid before cannot fit now unless some limit has more room than it had then
+        if (!anyLimitGrew(previous, remainingLimits)) {
+            Set<String> previouslyPaid = new HashSet<>();
+            previous.getPlans().forEach(plan -> previouslyPaid.add(plan.getOrderId()));
+            for (Order order : previous.getOrders()) {
+                if (!previouslyPaid.contains(order.getOrderId()) && !changedById.containsKey(order.getOrderId())) {
+                    skippedIds.add(order.getOrderId());
+                }
+            }
+        }
+        List<Order> toPlan = orders.stream().filter(order -> !skippedIds.contains(order.getOrderId())).toList();
+
+        List<PaymentPlan> plans;
+        if (toPlan.size() > FULL_RUN_SHARE * orders.size()) {
+            plans = optimizer.optimizePayments(orders);
+        } else {
+            plans = new ArrayList<>(kept);
+            plans.addAll(optimizer.optimizePayments(toPlan, remainingLimits));
+        }
+        return new CachedSolution(registry.getMethods(), orders, plans, optimizer.getPointsStrategy());
+    }
+
+    private boolean anyLimitGrew(CachedSolution previous, long[] remainingLimits) {
+        Map<String, Long> previousRemaining = new HashMap<>();
+        previous.getMethods().forEach(method -> previousRemaining.put(method.getId(), method.getLimitCents()));
+        for (PaymentPlan plan : previous.getPlans()) {
+            if (plan.getPointsAmountCents() > 0) previousRemaining.merge(POINTS_METHOD_ID, -plan.getPointsAmountCents(), Long::sum);
+            if (plan.getCashAmountCents() > 0) previousRemaining.merge(plan.getPaymentMethodId(), -plan.getCashAmountCents(), Long::sum);
+        }
+        for (int method = 0; method < remainingLimits.length; method++) {
+            Long before = previousRemaining.get(registry.idOf(method));
+            if (before == null || remainingLimits[method] > before) return true;
+        }
+        return false;
+    }
+
+    // methods that are gone or whose discount changed; plans on them would carry a wrong discount
+    private Set<String> staleMethodIds(List<PaymentMethod> previousMethods) {
+        Set<String> stale = new HashSet<>();
+        for (PaymentMethod method : previousMethods) {
+            int ordinal = registry.ordinalOf(method.getId());
+            if (ordinal == PaymentMethodRegistry.UNKNOWN_METHOD || registry.discountBasisPoints(ordinal) != method.getDiscountBasisPoints()) {
+                stale.add(method.getId());
+            }
+        }
+        return stale;
+    }
+
+    private boolean usesAny(PaymentPlan plan, Set<String> methodIds) {
+        if (methodIds.isEmpty()) return false;
+        return (plan.getPointsAmountCents() > 0 && methodIds.contains(POINTS_METHOD_ID))
+                || (plan.getCashAmountCents() > 0 && methodIds.contains(plan.getPaymentMethodId()));
+    }
+
+    // a lowered limit can be overdrawn by the kept plans; the largest plans on it are redone until it fits
+    private List<PaymentPlan> releaseOverdrawnLimits(List<PaymentPlan> kept, long[] remainingLimits) {
+        Set<PaymentPlan> released = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int method = 0; method < remainingLimits.length; method++) {
+            if (remainingLimits[method] >= 0) continue;
+            int overdrawn = method;
+            List<PaymentPlan> onMethod = kept.stream()
+                    .filter(plan -> !released.contains(plan) && usage(plan, overdrawn) > 0)
+                    .sorted(Comparator.comparingLong((PaymentPlan plan) -> usage(plan, overdrawn)).reversed())
+                    .toList();
+            for (PaymentPlan plan : onMethod) {
+                if (remainingLimits[method] >= 0) break;
+                released.add(plan);
+                registry.refund(plan, remainingLimits);
+            }
+        }
+        if (released.isEmpty()) return kept;
+        return kept.stream().filter(plan -> !released.contains(plan)).toList();
+    }
+
+    private long usage(PaymentPlan plan, int method) {
+        long used = 0L;
+        if (method == registry.getPointsOrdinal()) used += plan.getPointsAmountCents();
+        if (method == registry.cashOrdinal(plan)) used += plan.getCashAmountCents();
+        return used;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.service;
+
+// Stable sort of the indexes 0..n-1 by a comparison of primitive columns, so large candidate
+// lists can be ordered without one object per candidate and without boxing the indexes.
+final class IndexSort {
+
+    private static final int INSERTION_SORT_RUN = 32;
+
+    interface IndexComparator {
+        int compare(int left, int right);
+    }
+
+    private IndexSort() {
+    }
+
+    static int[] sorted(int n, IndexComparator comparator) {
+        int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        for (int start = 0; start < n; start += INSERTION_SORT_RUN) {
+            insertionSort(indexes, start, Math.min(n, start + INSERTION_SORT_RUN), comparator);
+        }
+
+        // bottom-up merges of the sorted runs, alternating between the two arrays
+        int[] source = indexes;
+        int[] target = new int[n];
+        for (int width = INSERTION_SORT_RUN; width < n; width *= 2) {
+            for (int left = 0; left < n; left += 2 * width) {
+                int middle = Math.min(n, left + width);
+                int right = Math.min(n, left + 2 * width);
+                merge(source, target, left, middle, right, comparator);
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        return source;
+    }
+
+    private static void insertionSort(int[] indexes, int from, int to, IndexComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int index = indexes[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(indexes[j], index) > 0) {
+                indexes[j + 1] = indexes[j];
+                j--;
+            }
+            indexes[j + 1] = index;
+        }
+    }
+
+    // ties take the left run first, which keeps the sort stable
+    private static void merge(int[] source, int[] target, int left, int middle, int right, IndexComparator comparator) {
+        int i = left;
+        int j = middle;
+        for (int k = left; k < right; k++) {
+            if (j >= right || (i < middle && comparator.compare(source[i], source[j]) <= 0)) {
+                target[k] = source[i++];
+            } else {
+                target[k] = source[j++];
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+
+import java.util.List;
+
+// 64-bit FNV-1a content hashes of the optimizer inputs. They only cover what the optimizer reads
+// (ids, amounts in cents, discounts, promotions), so reformatting a file does not change them.
+public final class InputFingerprint {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private InputFingerprint() {
+    }
+
+    public static long of(Order order) {
+        long hash = mix(OFFSET_BASIS, order.getOrderId());
+        hash = mix(hash, order.getTotalOrderValueCents());
+        List<String> promotions = order.getPromotions();
+        if (promotions != null) {
+            for (String promotion : promotions) {
+                hash = mix(hash, promotion);
+            }
+        }
+        return hash;
+    }
+
+    public static long of(PaymentMethod method) {
+        long hash = mix(OFFSET_BASIS, method.getId());
+        hash = mix(hash, method.getDiscountBasisPoints());
+        return mix(hash, method.getLimitCents());
+    }
+
+    public static String ofOrders(List<Order> orders) {
+        long hash = OFFSET_BASIS;
+        for (Order order : orders) {
+            hash = mix(hash, of(order));
+        }
+        return Long.toHexString(hash);
+    }
+
+    public static String ofMethods(List<PaymentMethod> methods) {
+        long hash = OFFSET_BASIS;
+        for (PaymentMethod method : methods) {
+            hash = mix(hash, of(method));
+        }
+        return Long.toHexString(hash);
+    }
+
+    private static long mix(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * PRIME;
+        }
+        // separator, so "AB" + "C" and "A" + "BC" differ
+        return (hash ^ 0xff) * PRIME;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,214 @@
+package org.example.service;
+
+import java.util.Arrays;
+
+import static org.example.service.PaymentProblem.CARD_PROMOTION;
+import static org.example.service.PaymentProblem.FULL_POINTS;
+import static org.example.service.PaymentProblem.UNPAID;
+import static org.example.service.PaymentProblem.kindOf;
+import static org.example.service.PaymentProblem.methodOf;
+
+// Relaxes the limits into prices: for any prices >= 0,
+//   sum(price * remaining limit) + sum over orders of max(discount - price * usage)
+// bounds the best total discount from above. Subgradient steps pick prices that make it tight.
+public class LagrangianRelaxation {
+
+    private static final double INITIAL_STEP = 0.5;
+    private static final double STEP_DECAY = 0.97;
+
+    private final PaymentProblem problem;
+    private final PaymentMethodRegistry registry;
+    private final int pointsOrdinal;
+    private final double[] prices;
+
+    // options of all orders flattened, so the subgradient loop does not recompute discounts
+    private final int[] firstOption;
+    private final int[] optionKind;
+    private final int[] optionMethod;
+    private final long[] optionDiscount;
+    private final long[] optionUsage;
+    private final long[] optionMinPoints;
+    private final long[] optionMaxPoints;
+
+    public LagrangianRelaxation(PaymentProblem problem) {
+        this.problem = problem;
+        this.registry = problem.getRegistry();
+        this.pointsOrdinal = registry.getPointsOrdinal();
+        this.prices = new double[registry.size()];
+
+        int n = problem.size();
+        this.firstOption = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            firstOption[i + 1] = firstOption[i] + problem.optionsOf(i).length;
+        }
+
+        int total = firstOption[n];
+        this.optionKind = new int[total];
+        this.optionMethod = new int[total];
+        this.optionDiscount = new long[total];
+        this.optionUsage = new long[total];
+        this.optionMinPoints = new long[total];
+        this.optionMaxPoints = new long[total];
+        for (int i = 0; i < n; i++) {
+            int[] options = problem.optionsOf(i);
+            for (int j = 0; j < options.length; j++) {
+                int index = firstOption[i] + j;
+                int option = options[j];
+                optionKind[index] = kindOf(option);
+                optionMethod[index] = methodOf(option);
+                optionDiscount[index] = problem.discount(i, option);
+                optionUsage[index] = problem.isSplit(option) ? problem.due(i, option) : problem.fixedUsage(i, option);
+                optionMinPoints[index] = problem.minPoints(i, option);
+                optionMaxPoints[index] = problem.maxPoints(i, option);
+            }
+        }
+    }
+
+    public double[] getPrices() {
+        return prices.clone();
+    }
+
+    public double reducedValue(int order, int option) {
+        return reducedValue(order, option, 1.0);
+    }
+
+    // priceScale > 1 makes limits look scarcer, which steers heuristics towards thrifty options
+    public double reducedValue(int order, int option, double priceScale) {
+        int[] options = problem.optionsOf(order);
+        for (int j = 0; j < options.length; j++) {
+            if (options[j] == option) {
+                return reduced(firstOption[order] + j, priceScale);
+            }
+        }
+        throw new IllegalArgumentException("Option " + option + " does not belong to order " + order);
+    }
+
+    private double reduced(int index, double priceScale) {
+        int kind = optionKind[index];
+        long discount = optionDiscount[index];
+        if (kind == UNPAID) return discount;
+        if (kind == CARD_PROMOTION || kind == FULL_POINTS) {
+            return discount - priceScale * prices[optionMethod[index]] * optionUsage[index];
+        }
+
+        // each point moved from the card saves its price and costs the points price
+        int card = optionMethod[index];
+        double perPoint = prices[card] - pointsPrice();
+        long points = perPoint > 0 ? optionMaxPoints[index] : optionMinPoints[index];
+        return discount - priceScale * (prices[card] * optionUsage[index] - perPoint * points);
+    }
+
+    private double pointsPrice() {
+        return pointsOrdinal >= 0 ? prices[pointsOrdinal] : 0.0;
+    }
+
+    private int bestOptionIndex(int order) {
+        int best = firstOption[order];
+        double bestValue = reduced(best, 1.0);
+        for (int index = best + 1; index < firstOption[order + 1]; index++) {
+            double value = reduced(index, 1.0);
+            if (value > bestValue) {
+                bestValue = value;
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    public double bestReducedValue(int order) {
+        return reduced(bestOptionIndex(order), 1.0);
+    }
+
+    // value of the prices on what the state has left, assuming each resource gets the favourable split
+    public double residualValue(AllocationState state) {
+        double value = 0.0;
+        if (pointsOrdinal >= 0) {
+            value += prices[pointsOrdinal] * state.relaxedRemainingPoints();
+        }
+        for (long cards = registry.cardMask(); cards != 0; cards &= cards - 1) {
+            int card = Long.numberOfTrailingZeros(cards);
+            value += prices[card] * state.relaxedRemainingLimit(card);
+        }
+        return value;
+    }
+
+    private double initialResidualValue() {
+        double value = 0.0;
+        for (int method = 0; method < prices.length; method++) {
+            value += prices[method] * registry.initialLimit(method);
+        }
+        return value;
+    }
+
+    public double bound() {
+        double total = initialResidualValue();
+        for (int i = 0; i < problem.size(); i++) {
+            total += bestReducedValue(i);
+        }
+        return total;
+    }
+
+    public double optimize(int iterations) {
+        return optimize(iterations, Long.MAX_VALUE);
+    }
+
+    // returns the smallest bound seen; the prices are left at the values that produced it
+    public double optimize(int iterations, long timeLimitNanos) {
+        long start = System.nanoTime();
+        int methods = prices.length;
+        double[] bestPrices = prices.clone();
+        double bestBound = Double.POSITIVE_INFINITY;
+        double step = INITIAL_STEP;
+        double[] usage = new double[methods];
+        double[] gradient = new double[methods];
+
+        for (int iteration = 0; iteration <= iterations; iteration++) {
+            Arrays.fill(usage, 0.0);
+            double bound = initialResidualValue();
+            for (int i = 0; i < problem.size(); i++) {
+                int best = bestOptionIndex(i);
+                bound += reduced(best, 1.0);
+                addUsage(best, usage);
+            }
+            if (bound < bestBound) {
+                bestBound = bound;
+                System.arraycopy(prices, 0, bestPrices, 0, methods);
+            }
+            if (iteration == iterations || System.nanoTime() - start > timeLimitNanos) break;
+
+            double norm = 0.0;
+            for (int method = 0; method < methods; method++) {
+                gradient[method] = registry.initialLimit(method) - usage[method];
+                if (gradient[method] < 0 || prices[method] > 0) {
+                    norm += gradient[method] * gradient[method];
+                }
+            }
+            if (norm == 0.0) break;
+
+            norm = Math.sqrt(norm);
+            for (int method = 0; method < methods; method++) {
+                prices[method] = Math.max(0.0, prices[method] - step * gradient[method] / norm);
+            }
+            step *= STEP_DECAY;
+        }
+
+        System.arraycopy(bestPrices, 0, prices, 0, methods);
+        return bestBound;
+    }
+
+    private void addUsage(int index, double[] usage) {
+        int kind = optionKind[index];
+        if (kind == UNPAID) return;
+        int method = optionMethod[index];
+        if (kind == CARD_PROMOTION || kind == FULL_POINTS) {
+            usage[method] += optionUsage[index];
+            return;
+        }
+
+        long points = prices[method] > pointsPrice() ? optionMaxPoints[index] : optionMinPoints[index];
+        if (pointsOrdinal >= 0) {
+            usage[pointsOrdinal] += points;
+        }
+        usage[method] += optionUsage[index] - points;
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Greedy on a single heap of orders instead of the fixed card promotion -> full points -> remaining
+// orders passes of PaymentOptimizer. The key is the marginal discount of an order's best plan: what
+// it earns over the best plan left without the limits it draws on, per cent of limit used. An order
+// enters with an upper bound and is only evaluated against the real limits when it reaches the top;
+// after that it is re-evaluated only if a limit its plan uses has changed.
+// The marginal key spends limits on discounts without regard to how many orders still need them, so
+// when the limits cannot pay every order it leaves more unpaid than the fixed passes. In that case
+// the passes run as well and the result with more paid orders (then the larger discount) wins.
+public class LazyGreedyOptimizer implements PaymentSolver {
+
+    private static final long PARTIAL_POINTS_DISCOUNT_BASIS_POINTS = 1_000;
+    private static final int NOT_USED = -1;
+
+    private final PaymentMethodRegistry registry;
+    private final PaymentCalculator paymentCalculator;
+    private final PaymentOptimizer passes;
+
+    public LazyGreedyOptimizer(List<PaymentMethod> allPaymentMethods) {
+        this(new PaymentMethodRegistry(allPaymentMethods));
+    }
+
+    public LazyGreedyOptimizer(PaymentMethodRegistry registry) {
+        this.registry = registry;
+        this.paymentCalculator = new PaymentCalculator(registry);
+        this.passes = new PaymentOptimizer(registry.getMethods());
+    }
+
+    @Override
+    public List<PaymentPlan> optimizePayments(List<Order> orders) {
+        long[] currentLimits = registry.newLimitLedger();
+        long[] promotionMasks = registry.promotionMasks(orders);
+        long[] withoutPlanMethods = new long[currentLimits.length];
+
+        PriorityQueue<Entry> queue = new PriorityQueue<>(Math.max(1, orders.size()), LazyGreedyOptimizer::compare);
+        for (int i = 0; i < orders.size(); i++) {
+            queue.add(new Entry(i, orders.get(i).getTotalOrderValueCents(), discountPerCentUpperBound(orders.get(i), promotionMasks[i])));
+        }
+
+        List<PaymentPlan> chosenPlans = new ArrayList<>(orders.size());
+        while (!queue.isEmpty()) {
+            Entry entry = queue.poll();
+            if (entry.plan != null && !entry.isStale(currentLimits)) {
+                registry.charge(entry.plan, currentLimits);
+                chosenPlans.add(entry.plan);
+                continue;
+            }
+
+            // never above the upper bound the order entered with; a key that rose because the fallback
+            // got worse only brings the order back to the top sooner
+            PaymentPlan plan = paymentCalculator.selectBestCandidate(orders.get(entry.order), promotionMasks[entry.order], currentLimits);
+            if (plan == null) continue;
+            entry.evaluate(plan, fallbackDiscount(orders.get(entry.order), promotionMasks[entry.order], plan, currentLimits, withoutPlanMethods), currentLimits);
+            queue.add(entry);
+        }
+
+        if (chosenPlans.size() != orders.size()) {
+            List<PaymentPlan> passPlans = passes.optimizeQuietly(orders);
+            if (passPlans.size() > chosenPlans.size()
+                    || passPlans.size() == chosenPlans.size() && totalDiscount(passPlans) > totalDiscount(chosenPlans)) {
+                chosenPlans = passPlans;
+            }
+        }
+
+        if (chosenPlans.size() != orders.size()) {
+            Set<String> paid = chosenPlans.stream().map(PaymentPlan::getOrderId).collect(Collectors.toSet());
+            System.err.println("Warning: Not all orders were processed. Unpaid order IDs: " +
+                    orders.stream().map(Order::getOrderId).filter(id -> !paid.contains(id)).collect(Collectors.joining(", ")));
+        }
+        return chosenPlans;
+    }
+
+    private static long totalDiscount(List<PaymentPlan> plans) {
+        return plans.stream().mapToLong(PaymentPlan::getDiscountCents).sum();
+    }
+
+    // the best discount per cent of limit any PaymentCalculator shape can give the order
+    private double discountPerCentUpperBound(Order order, long promotionMask) {
+        long orderValue = order.getTotalOrderValueCents();
+        double bound = 0.0;
+        for (long remaining = promotionMask; remaining != 0; remaining &= remaining - 1) {
+            bound = Math.max(bound, shapeDiscountPerCent(orderValue, registry.discountBasisPoints(Long.numberOfTrailingZeros(remaining))));
+        }
+        if (registry.hasPointsMethod()) {
+            bound = Math.max(bound, shapeDiscountPerCent(orderValue, registry.discountBasisPoints(registry.getPointsOrdinal())));
+            bound = Math.max(bound, shapeDiscountPerCent(orderValue, PARTIAL_POINTS_DISCOUNT_BASIS_POINTS));
+        }
+        return bound;
+    }
+
+    private static double shapeDiscountPerCent(long orderValue, long discountBasisPoints) {
+        long discount = Money.percentOf(orderValue, discountBasisPoints);
+        return discountPerCent(discount, orderValue - discount);
+    }
+
+    private static double discountPerCent(long discount, long limitUsed) {
+        return limitUsed > 0 ? (double) discount / limitUsed : 0.0;
+    }
+
+    // discount of the best plan left once the limits the chosen plan draws on are taken away
+    private long fallbackDiscount(Order order, long promotionMask, PaymentPlan plan, long[] currentLimits, long[] scratch) {
+        System.arraycopy(currentLimits, 0, scratch, 0, currentLimits.length);
+        if (plan.getPointsAmountCents() > 0) scratch[registry.getPointsOrdinal()] = 0L;
+        if (plan.getCashAmountCents() > 0) scratch[registry.ordinalOf(plan.getPaymentMethodId())] = 0L;
+        PaymentPlan fallback = paymentCalculator.selectBestCandidate(order, promotionMask, scratch);
+        return fallback != null ? fallback.getDiscountCents() : 0L;
+    }
+
+    // higher discount per cent of limit first; among equal ones the smaller order, as in the full points pass, except
+    // among orders without any discount, where larger orders go first as in the remaining pass
+    private static int compare(Entry left, Entry right) {
+        if (left.discountPerCent != right.discountPerCent) return Double.compare(right.discountPerCent, left.discountPerCent);
+        if (left.orderValue != right.orderValue) {
+            return left.discountPerCent == 0.0
+                    ? Long.compare(right.orderValue, left.orderValue)
+                    : Long.compare(left.orderValue, right.orderValue);
+        }
+        return Integer.compare(left.order, right.order);
+    }
+
+    private final class Entry {
+        private final int order;
+        private final long orderValue;
+        private double discountPerCent;
+        private PaymentPlan plan;
+        private int pointsMethod = NOT_USED;
+        private long pointsLimitSeen;
+        private int cashMethod = NOT_USED;
+        private long cashLimitSeen;
+
+        Entry(int order, long orderValue, double discountPerCentUpperBound) {
+            this.order = order;
+            this.orderValue = orderValue;
+            this.discountPerCent = discountPerCentUpperBound;
+        }
+
+        void evaluate(PaymentPlan plan, long fallbackDiscount, long[] currentLimits) {
+            this.plan = plan;
+            this.discountPerCent = discountPerCent(plan.getDiscountCents() - fallbackDiscount, plan.getPointsAmountCents() + plan.getCashAmountCents());
+            pointsMethod = plan.getPointsAmountCents() > 0 ? registry.getPointsOrdinal() : NOT_USED;
+            cashMethod = plan.getCashAmountCents() > 0 ? registry.ordinalOf(plan.getPaymentMethodId()) : NOT_USED;
+            pointsLimitSeen = pointsMethod != NOT_USED ? currentLimits[pointsMethod] : 0L;
+            cashLimitSeen = cashMethod != NOT_USED ? currentLimits[cashMethod] : 0L;
+        }
+
+        // the plan stays the best one as long as the limits it draws on are untouched, as every other
+        // candidate can only have become worse; the key is not refreshed when only the fallback got worse
+        boolean isStale(long[] currentLimits) {
+            return (pointsMethod != NOT_USED && currentLimits[pointsMethod] != pointsLimitSeen)
+                    || (cashMethod != NOT_USED && currentLimits[cashMethod] != cashLimitSeen);
+        }
+    }
+}
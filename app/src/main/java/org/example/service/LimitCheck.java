@@ -0,0 +1,16 @@
+package org.example.service;
+
+// Places where a plan or a candidate can be turned down because a limit is too small
+public enum LimitCheck {
+    // PaymentOptimizer passes
+    PROMOTION_PASS_CARD_LIMIT,
+    POINTS_PASS_POINTS_LIMIT,
+
+    // PaymentCalculator plan shapes
+    FULL_CARD_LIMIT,
+    FULL_POINTS_LIMIT,
+    PARTIAL_POINTS_LIMIT,
+    PARTIAL_SPLIT_CARD_LIMIT,
+    NO_DISCOUNT_CARD_LIMIT,
+    POINTS_TOP_UP_CARD_LIMIT
+}
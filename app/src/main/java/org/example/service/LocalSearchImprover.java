@@ -0,0 +1,291 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.example.service.PaymentProblem.PARTIAL_POINTS;
+import static org.example.service.PaymentProblem.UNPAID;
+import static org.example.service.PaymentProblem.kindOf;
+import static org.example.service.PaymentProblem.methodOf;
+
+// Anytime improvement of finished plans, e.g. the greedy result. Every worker starts from the same
+// assignment with its own AllocationState and random stream and only takes moves that do not
+// lower the objective: one order switches option, or one order takes a better option after
+// another order on the same method steps aside (a card promotion changes hands, full points
+// become partial points, points are freed for a larger order). Zero-gain moves are taken too,
+// so workers drift apart on plateaus. The best worker's assignment wins at the time budget. The
+// upper bound is computed on one of the threads, next to one search worker fewer; with a single
+// thread it comes first and takes an eighth of the budget.
+public class LocalSearchImprover {
+
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofSeconds(2);
+    public static final long DEFAULT_SEED = 42L;
+
+    private static final int SUBGRADIENT_ITERATIONS = 1_000;
+    private static final int CLOCK_CHECK_INTERVAL = 1 << 10;
+
+    private final PaymentMethodRegistry registry;
+    private final int workers;
+    private final long seed;
+
+    public LocalSearchImprover(List<PaymentMethod> allPaymentMethods) {
+        this(new PaymentMethodRegistry(allPaymentMethods));
+    }
+
+    public LocalSearchImprover(PaymentMethodRegistry registry) {
+        this(registry, Runtime.getRuntime().availableProcessors(), DEFAULT_SEED);
+    }
+
+    public LocalSearchImprover(PaymentMethodRegistry registry, int workers, long seed) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Worker count must be positive, got: " + workers);
+        }
+        this.registry = registry;
+        this.workers = workers;
+        this.seed = seed;
+    }
+
+    public OptimizationResult improve(List<Order> orders, List<PaymentPlan> plans, Duration timeBudget) {
+        long start = System.nanoTime();
+        long deadline = start + timeBudget.toNanos();
+        PaymentProblem problem = new PaymentProblem(registry, orders);
+        int[] initial = feasibleStart(problem, plans);
+
+        SplittableRandom root = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            // the bound only qualifies the result, so it gets an eighth of the budget; submitted
+            // first, so a single thread does not run it after the search deadline
+            Future<Double> bound = pool.submit(() -> new LagrangianRelaxation(problem).optimize(SUBGRADIENT_ITERATIONS, timeBudget.toNanos() / 8));
+            int searchWorkers = Math.max(1, workers - 1);
+            List<Future<Worker>> running = new ArrayList<>(searchWorkers);
+            for (int w = 0; w < searchWorkers; w++) {
+                running.add(pool.submit(new Worker(problem, initial, root.split(), deadline)));
+            }
+
+            double lagrangian = await(bound);
+            long upperBound = (long) Math.floor(lagrangian + Math.abs(lagrangian) * 1e-9 + 1e-6);
+
+            Worker best = null;
+            long moves = 0L;
+            for (Future<Worker> future : running) {
+                Worker worker = await(future);
+                moves += worker.moves;
+                if (best == null || worker.objective > best.objective) best = worker;
+            }
+
+            int unpaid = problem.countUnpaid(best.assignment);
+            return new OptimizationResult(
+                    problem.buildPlans(best.assignment),
+                    best.objective + unpaid * problem.getUnpaidPenalty(),
+                    unpaid,
+                    best.objective,
+                    upperBound,
+                    best.objective >= upperBound,
+                    moves,
+                    Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // the options the plans correspond to; orders whose plan does not fit next to the others (or
+    // that have no plan) are placed afterwards on their best option that still fits, possibly UNPAID
+    private int[] feasibleStart(PaymentProblem problem, List<PaymentPlan> plans) {
+        Map<String, ArrayDeque<PaymentPlan>> plansById = new HashMap<>();
+        for (PaymentPlan plan : plans) {
+            plansById.computeIfAbsent(plan.getOrderId(), id -> new ArrayDeque<>()).add(plan);
+        }
+
+        AllocationState state = new AllocationState(problem);
+        int[] assignment = new int[problem.size()];
+        boolean[] placed = new boolean[assignment.length];
+        int replaced = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            ArrayDeque<PaymentPlan> queue = plansById.get(problem.getOrders().get(i).getOrderId());
+            PaymentPlan plan = queue != null ? queue.poll() : null;
+            if (plan == null) continue;
+            int option = problem.optionOf(i, plan);
+            if (option < 0 || !state.canAdd(i, option)) {
+                replaced++;
+                continue;
+            }
+            state.add(i, option);
+            assignment[i] = option;
+            placed[i] = true;
+        }
+        for (int i = 0; i < assignment.length; i++) {
+            if (placed[i]) continue;
+            assignment[i] = bestFitting(problem, state, i);
+            state.add(i, assignment[i]);
+        }
+        if (replaced > 0) {
+            System.err.println("Warning: " + replaced + " starting plans do not fit the limits and were replaced.");
+        }
+        return assignment;
+    }
+
+    private static int bestFitting(PaymentProblem problem, AllocationState state, int order) {
+        int best = PaymentProblem.option(UNPAID, 0);
+        for (int option : problem.optionsOf(order)) {
+            if (problem.discount(order, option) > problem.discount(order, best) && state.canAdd(order, option)) {
+                best = option;
+            }
+        }
+        return best;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while improving plans", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Local search failed", e.getCause());
+        }
+    }
+
+    private static final class Worker implements Callable<Worker> {
+        private final PaymentProblem problem;
+        private final AllocationState state;
+        private final int[] assignment;
+        private final SplittableRandom random;
+        private final long deadline;
+        private final int pointsOrdinal;
+
+        // orders per method of their current option, so a move can pick one to step aside
+        private final int[][] members;
+        private final int[] memberCount;
+        private final int[] position;
+
+        private long objective;
+        // accepted moves, zero-gain ones included
+        private long moves;
+
+        Worker(PaymentProblem problem, int[] initial, SplittableRandom random, long deadline) {
+            this.problem = problem;
+            this.assignment = initial.clone();
+            this.random = random;
+            this.deadline = deadline;
+            this.pointsOrdinal = problem.getRegistry().getPointsOrdinal();
+            this.state = new AllocationState(problem);
+            this.objective = problem.objective(assignment);
+
+            int methods = problem.getRegistry().size();
+            this.members = new int[methods][];
+            this.memberCount = new int[methods];
+            this.position = new int[assignment.length];
+            Arrays.setAll(members, method -> new int[16]);
+            for (int i = 0; i < assignment.length; i++) {
+                state.add(i, assignment[i]);
+                join(i, assignment[i]);
+            }
+        }
+
+        @Override
+        public Worker call() {
+            if (assignment.length == 0) return this;
+            while (true) {
+                for (int k = 0; k < CLOCK_CHECK_INTERVAL; k++) {
+                    step();
+                }
+                if (System.nanoTime() >= deadline || Thread.currentThread().isInterrupted()) return this;
+            }
+        }
+
+        private void step() {
+            int order = random.nextInt(assignment.length);
+            int[] options = problem.optionsOf(order);
+            int target = options[random.nextInt(options.length)];
+            int current = assignment[order];
+            if (target == current) return;
+            long gain = problem.discount(order, target) - problem.discount(order, current);
+            if (gain < 0) return;
+
+            state.remove(order, current);
+            if (state.canAdd(order, target)) {
+                move(order, current, target);
+                objective += gain;
+                return;
+            }
+            if (gain == 0 || !makeRoom(order, target, gain)) {
+                state.add(order, current);
+                return;
+            }
+            move(order, current, target);
+        }
+
+        // moves one order on the target's card or on PUNKTY to a random option, as long as that
+        // costs at most the gain and the target fits afterwards; the order itself is already removed
+        private boolean makeRoom(int order, int target, long gain) {
+            int kind = kindOf(target);
+            int method = kind == PARTIAL_POINTS && pointsOrdinal >= 0 && random.nextBoolean() ? pointsOrdinal : methodOf(target);
+            if (kind == UNPAID || memberCount[method] == 0) return false;
+            int other = members[method][random.nextInt(memberCount[method])];
+            if (other == order) return false;
+
+            int otherCurrent = assignment[other];
+            int[] otherOptions = problem.optionsOf(other);
+            int otherTarget = otherOptions[random.nextInt(otherOptions.length)];
+            long loss = problem.discount(other, otherCurrent) - problem.discount(other, otherTarget);
+            if (otherTarget == otherCurrent || loss > gain) return false;
+
+            state.remove(other, otherCurrent);
+            if (state.canAdd(other, otherTarget)) {
+                state.add(other, otherTarget);
+                if (state.canAdd(order, target)) {
+                    leave(other, otherCurrent);
+                    join(other, otherTarget);
+                    assignment[other] = otherTarget;
+                    objective += gain - loss;
+                    return true;
+                }
+                state.remove(other, otherTarget);
+            }
+            state.add(other, otherCurrent);
+            return false;
+        }
+
+        private void move(int order, int from, int to) {
+            moves++;
+            state.add(order, to);
+            leave(order, from);
+            join(order, to);
+            assignment[order] = to;
+        }
+
+        private void join(int order, int option) {
+            if (kindOf(option) == UNPAID) return;
+            int method = methodOf(option);
+            if (memberCount[method] == members[method].length) {
+                members[method] = Arrays.copyOf(members[method], 2 * members[method].length);
+            }
+            position[order] = memberCount[method];
+            members[method][memberCount[method]++] = order;
+        }
+
+        private void leave(int order, int option) {
+            if (kindOf(option) == UNPAID) return;
+            int method = methodOf(option);
+            int last = members[method][--memberCount[method]];
+            members[method][position[order]] = last;
+            position[last] = position[order];
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Assigns plans one order at a time as orders arrive. plan() reserves the limits of the chosen
+// plan right away; the reservation is then either confirmed (limits stay used) or released
+// (limits go back). Confirmed order ids are kept for the planner's lifetime, so an order cannot be
+// charged twice, and planning it again fails. Safe to call from any number of threads: nothing
+// blocks, limits are only touched through ConcurrentLimitLedger.
+public class OnlinePaymentPlanner {
+
+    private final PaymentMethodRegistry registry;
+    private final PaymentCalculator paymentCalculator;
+    private final ConcurrentLimitLedger ledger;
+    private final ConcurrentHashMap<String, PaymentPlan> reservations = new ConcurrentHashMap<>();
+    private final Set<String> confirmed = ConcurrentHashMap.newKeySet();
+
+    public OnlinePaymentPlanner(List<PaymentMethod> allPaymentMethods) {
+        this(new PaymentMethodRegistry(allPaymentMethods));
+    }
+
+    public OnlinePaymentPlanner(PaymentMethodRegistry registry) {
+        this.registry = registry;
+        this.paymentCalculator = new PaymentCalculator(registry);
+        this.ledger = new ConcurrentLimitLedger(registry);
+    }
+
+    public PaymentMethodRegistry getRegistry() {
+        return registry;
+    }
+
+    public ConcurrentLimitLedger getLedger() {
+        return ledger;
+    }
+
+    // best plan that could be reserved, empty when nothing fits the remaining limits
+    public Optional<PaymentPlan> plan(Order order) {
+        String orderId = order.getOrderId();
+        if (confirmed.contains(orderId)) {
+            throw new IllegalStateException("Order " + orderId + " is already confirmed");
+        }
+        if (reservations.containsKey(orderId)) {
+            throw new IllegalStateException("Order " + orderId + " already has a pending reservation");
+        }
+        long promotionMask = registry.promotionMask(order);
+
+        while (true) {
+            long[] snapshot = ledger.snapshot();
+            PaymentPlan best = paymentCalculator.selectBestCandidate(order, promotionMask, snapshot);
+            if (best == null) return Optional.empty();
+            if (ledger.tryReserve(best)) return Optional.of(record(orderId, best));
+
+            // another thread used the limits since the snapshot; the next candidates of the same
+            // snapshot may still fit, and only this rare path builds them all
+            List<PaymentPlan> candidates = paymentCalculator.generateCandidatePlans(order, promotionMask, snapshot).stream()
+                    .filter(plan -> registry.fits(plan, snapshot))
+                    .sorted(PaymentCalculator.PLAN_PREFERENCE)
+                    .toList();
+            for (PaymentPlan plan : candidates) {
+                if (ledger.tryReserve(plan)) return Optional.of(record(orderId, plan));
+            }
+            // every candidate fitted the snapshot, so other threads used the limits in the meantime
+        }
+    }
+
+    // the limits of plan are reserved already; given back when the order turns out to be taken
+    private PaymentPlan record(String orderId, PaymentPlan plan) {
+        if (reservations.putIfAbsent(orderId, plan) != null) {
+            ledger.release(plan);
+            throw new IllegalStateException("Order " + orderId + " already has a pending reservation");
+        }
+        // confirm marks the order inside the removal of its reservation, so a confirmation that
+        // happened before the putIfAbsent above is visible here
+        if (confirmed.contains(orderId)) {
+            reservations.remove(orderId, plan);
+            ledger.release(plan);
+            throw new IllegalStateException("Order " + orderId + " is already confirmed");
+        }
+        return plan;
+    }
+
+    public boolean confirm(String orderId) {
+        boolean[] confirmedNow = new boolean[1];
+        reservations.computeIfPresent(orderId, (id, plan) -> {
+            confirmed.add(id);
+            confirmedNow[0] = true;
+            return null;
+        });
+        return confirmedNow[0];
+    }
+
+    public boolean isConfirmed(String orderId) {
+        return confirmed.contains(orderId);
+    }
+
+    public boolean release(String orderId) {
+        PaymentPlan plan = reservations.remove(orderId);
+        if (plan == null) return false;
+
+        ledger.release(plan);
+        return true;
+    }
+
+    public Optional<PaymentPlan> reservationOf(String orderId) {
+        return Optional.ofNullable(reservations.get(orderId));
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.example.model.PaymentPlan;
+
+import java.time.Duration;
+import java.util.List;
+
+// Outcome of a budgeted solver run. The bound is on the objective (total discount, minus the
+// batch value for every unpaid order), so with everything paid it bounds the total discount.
+@AllArgsConstructor
+@Getter
+@ToString(exclude = "plans")
+public class OptimizationResult {
+
+    private List<PaymentPlan> plans;
+
+    private long totalDiscountCents;
+
+    private int unpaidOrders;
+
+    private long objectiveCents;
+
+    private long upperBoundCents;
+
+    private boolean optimal;
+
+    private long exploredNodes;
+
+    private Duration elapsed;
+
+    public long getOptimalityGapCents() {
+        return Math.max(0L, upperBoundCents - objectiveCents);
+    }
+
+    public double getRelativeGap() {
+        if (optimal || upperBoundCents <= 0) return 0.0;
+        return (double) getOptimalityGapCents() / upperBoundCents;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.example.OptimizationRun")
+@Label("Optimization Run")
+@Category({"Payment Optimizer"})
+@Description("Whole PaymentOptimizer.optimizePayments call")
+class OptimizationRunEvent extends Event {
+
+    @Label("Orders")
+    int orders;
+
+    @Label("Unpaid Orders")
+    int unpaidOrders;
+
+    @Label("Total Discount Cents")
+    long totalDiscountCents;
+}
@@ -0,0 +1,53 @@
+package org.example.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+// Snapshot of one PaymentOptimizer.optimizePayments run: time and paid orders per pass,
+// candidates and limit rejections counted during the run, and how much of every limit was used.
+@AllArgsConstructor
+@Getter
+@ToString
+public class OptimizerMetrics {
+
+    private long promotionPassNanos;
+
+    private long pointsPassNanos;
+
+    private long remainingPassNanos;
+
+    private int promotionPassPaid;
+
+    private int pointsPassPaid;
+
+    private int remainingPassPaid;
+
+    private int unpaidOrders;
+
+    private long candidatesGenerated;
+
+    private Map<LimitCheck, Long> rejectedByCheck;
+
+    // keyed by payment method id, in definition order
+    private Map<String, Long> initialLimitCents;
+
+    private Map<String, Long> usedCents;
+
+    public long getTotalNanos() {
+        return promotionPassNanos + pointsPassNanos + remainingPassNanos;
+    }
+
+    public long getTotalRejected() {
+        return rejectedByCheck.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    // share of the method's limit used by the chosen plans, 0 for an unknown or zero limit
+    public double getUtilisation(String methodId) {
+        long limit = initialLimitCents.getOrDefault(methodId, 0L);
+        if (limit <= 0) return 0.0;
+        return (double) usedCents.getOrDefault(methodId, 0L) / limit;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One pass of PaymentOptimizer.optimizePayments; committed once per pass, never per candidate
+@Name("org.example.OptimizerPhase")
+@Label("Optimizer Phase")
+@Category({"Payment Optimizer"})
+@Description("Card promotion, full points or remaining orders pass of the greedy optimizer")
+class OptimizerPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Orders Paid")
+    int ordersPaid;
+
+    @Label("Candidates Generated")
+    long candidatesGenerated;
+
+    @Label("Candidates Rejected")
+    long candidatesRejected;
+
+    // wall time for OptimizerMetrics, which needs it even when the event is disabled; JFR skips transient fields
+    transient long startNanos;
+    transient long nanos;
+}
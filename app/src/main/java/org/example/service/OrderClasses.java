@@ -0,0 +1,117 @@
+package org.example.service;
+
+import org.example.model.Order;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Orders with the same value and the same promotion mask get the same plans from the same limits,
+// so an optimizer can decide for a whole class at once and hand the plans out to its members
+// afterwards. Classes are numbered by their first member; members keep their input order.
+public final class OrderClasses {
+
+    private final List<Order> orders;
+    private final long[] valueCents;
+    private final long[] promotionMasks;
+    // members of class k are members[firstMember[k] .. firstMember[k + 1]), as order positions
+    private final int[] firstMember;
+    private final int[] members;
+
+    private OrderClasses(List<Order> orders, long[] valueCents, long[] promotionMasks, int[] firstMember, int[] members) {
+        this.orders = orders;
+        this.valueCents = valueCents;
+        this.promotionMasks = promotionMasks;
+        this.firstMember = firstMember;
+        this.members = members;
+    }
+
+    public static OrderClasses of(List<Order> orders, PaymentMethodRegistry registry) {
+        return of(orders, registry.promotionMasks(orders));
+    }
+
+    // promotionMasks as from PaymentMethodRegistry.promotionMasks(orders)
+    static OrderClasses of(List<Order> orders, long[] promotionMasks) {
+        Map<ClassKey, Integer> classIndex = new HashMap<>();
+        int[] classOf = new int[orders.size()];
+        int[] counts = new int[orders.size() + 1];
+        for (int i = 0; i < classOf.length; i++) {
+            ClassKey key = new ClassKey(orders.get(i).getTotalOrderValueCents(), promotionMasks[i]);
+            Integer k = classIndex.putIfAbsent(key, classIndex.size());
+            classOf[i] = k != null ? k : classIndex.size() - 1;
+            counts[classOf[i] + 1]++;
+        }
+
+        int size = classIndex.size();
+        long[] valueCents = new long[size];
+        long[] masks = new long[size];
+        int[] firstMember = new int[size + 1];
+        for (int k = 0; k < size; k++) {
+            firstMember[k + 1] = firstMember[k] + counts[k + 1];
+        }
+        int[] next = firstMember.clone();
+        int[] members = new int[orders.size()];
+        for (int i = 0; i < classOf.length; i++) {
+            int k = classOf[i];
+            if (next[k] == firstMember[k]) {
+                valueCents[k] = orders.get(i).getTotalOrderValueCents();
+                masks[k] = promotionMasks[i];
+            }
+            members[next[k]++] = i;
+        }
+        return new OrderClasses(orders, valueCents, masks, firstMember, members);
+    }
+
+    public int size() {
+        return valueCents.length;
+    }
+
+    public int count(int k) {
+        return firstMember[k + 1] - firstMember[k];
+    }
+
+    public long valueCents(int k) {
+        return valueCents[k];
+    }
+
+    public long promotionMask(int k) {
+        return promotionMasks[k];
+    }
+
+    // the first member; any member would do for planning
+    public Order representative(int k) {
+        return orders.get(members[firstMember[k]]);
+    }
+
+    // j-th member of class k, 0 <= j < count(k)
+    public Order member(int k, int j) {
+        return orders.get(memberPosition(k, j));
+    }
+
+    // position of that member in the order list
+    public int memberPosition(int k, int j) {
+        return members[firstMember[k] + j];
+    }
+
+    private static final class ClassKey {
+        private final long valueCents;
+        private final long promotionMask;
+
+        ClassKey(long valueCents, long promotionMask) {
+            this.valueCents = valueCents;
+            this.promotionMask = promotionMask;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ClassKey that)) return false;
+            return valueCents == that.valueCents && promotionMask == that.promotionMask;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(valueCents * 31 + promotionMask);
+        }
+    }
+}
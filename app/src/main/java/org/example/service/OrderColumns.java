@@ -0,0 +1,72 @@
+package org.example.service;
+
+import org.example.model.Order;
+
+import java.util.List;
+
+// Orders as parallel primitive arrays: ids, values in cents and promotion masks of one registry.
+// The optimizer passes read these instead of going through every Order and its promotion list,
+// and get discounts and costs for all orders against one method at a time from DiscountKernels.
+public final class OrderColumns {
+
+    private final String[] ids;
+    private final long[] valueCents;
+    private final long[] promotionMasks;
+
+    private OrderColumns(String[] ids, long[] valueCents, long[] promotionMasks) {
+        this.ids = ids;
+        this.valueCents = valueCents;
+        this.promotionMasks = promotionMasks;
+    }
+
+    public static OrderColumns of(List<Order> orders, PaymentMethodRegistry registry) {
+        return of(orders, registry.promotionMasks(orders));
+    }
+
+    // promotionMasks as from PaymentMethodRegistry.promotionMasks(orders); the array is not copied
+    static OrderColumns of(List<Order> orders, long[] promotionMasks) {
+        String[] ids = new String[orders.size()];
+        long[] valueCents = new long[orders.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Order order = orders.get(i);
+            ids[i] = order.getOrderId();
+            valueCents[i] = order.getTotalOrderValueCents();
+        }
+        return new OrderColumns(ids, valueCents, promotionMasks);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String id(int order) {
+        return ids[order];
+    }
+
+    public long valueCents(int order) {
+        return valueCents[order];
+    }
+
+    public long promotionMask(int order) {
+        return promotionMasks[order];
+    }
+
+    // methods that are a promotion of at least one order
+    public long promotedMethods() {
+        long methods = 0L;
+        for (long mask : promotionMasks) {
+            methods |= mask;
+        }
+        return methods;
+    }
+
+    // discount of every order paid with a method of the given discount
+    public long[] discounts(long basisPoints) {
+        return DiscountKernels.percentOf(valueCents, basisPoints, new long[valueCents.length]);
+    }
+
+    // what every order costs after the given per-order discounts
+    public long[] costsAfter(long[] discounts) {
+        return DiscountKernels.subtract(valueCents, discounts, new long[valueCents.length]);
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.example.model.Order;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Orders added, removed or changed (value or promotions) between two runs
+@AllArgsConstructor
+@Getter
+@ToString
+public class OrderDelta {
+
+    private List<Order> added;
+
+    private Set<String> removedIds;
+
+    private List<Order> changed;
+
+    public static OrderDelta between(List<Order> previous, List<Order> current) {
+        Map<String, Long> previousFingerprints = new HashMap<>(previous.size() * 2);
+        for (Order order : previous) {
+            previousFingerprints.put(order.getOrderId(), InputFingerprint.of(order));
+        }
+
+        List<Order> added = new ArrayList<>();
+        List<Order> changed = new ArrayList<>();
+        for (Order order : current) {
+            Long fingerprint = previousFingerprints.remove(order.getOrderId());
+            if (fingerprint == null) {
+                added.add(order);
+            } else if (fingerprint != InputFingerprint.of(order)) {
+                changed.add(order);
+            }
+        }
+        // what is left was not in the current orders
+        Set<String> removedIds = new LinkedHashSet<>();
+        for (Order order : previous) {
+            if (previousFingerprints.containsKey(order.getOrderId())) {
+                removedIds.add(order.getOrderId());
+            }
+        }
+        return new OrderDelta(added, removedIds, changed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removedIds.isEmpty() && changed.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + removedIds.size() + changed.size();
+    }
+}
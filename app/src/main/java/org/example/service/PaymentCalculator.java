@@ -0,0 +1,269 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.model.Order;
+import org.example.model.PaymentPlan;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class PaymentCalculator {
+
+    private static final long TEN_PERCENT_BASIS_POINTS = 1_000L;
+    private static final long ONE_CENT = 1L;
+
+    // order in which plans of one order are preferred: larger discount, more points, lower final amount
+    static final Comparator<PaymentPlan> PLAN_PREFERENCE = (plan, other) -> comparePreference(
+            plan.getDiscountCents(), plan.getPointsAmountCents(), plan.getFinalAmountCents(),
+            other.getDiscountCents(), other.getPointsAmountCents(), other.getFinalAmountCents());
+
+    private final PaymentMethodRegistry registry;
+    private final CandidateCounters counters = new CandidateCounters();
+    private final ThreadLocal<CandidateBuffer> buffers = ThreadLocal.withInitial(CandidateBuffer::new);
+
+    // PLAN_PREFERENCE on the plain fields, for candidates that are not PaymentPlans (yet)
+    static int comparePreference(long discount, long points, long finalAmount,
+                                 long otherDiscount, long otherPoints, long otherFinalAmount) {
+        if (discount != otherDiscount) return Long.compare(otherDiscount, discount);
+        if (points != otherPoints) return Long.compare(otherPoints, points);
+        return Long.compare(finalAmount, otherFinalAmount);
+    }
+
+    public PaymentCalculator(PaymentMethodRegistry registry) {
+        this.registry = registry;
+    }
+
+    public CandidateCounters getCounters() {
+        return counters;
+    }
+
+    public List<PaymentPlan> generatePossiblePlans(Order order, long[] currentLimits) {
+        return generatePossiblePlans(order, registry.promotionMask(order), currentLimits);
+    }
+
+    public List<PaymentPlan> generatePossiblePlans(
+            Order order,
+            long promotionMask,
+            long[] currentLimits
+    ) {
+        List<PaymentPlan> possiblePlans = generateCandidatePlans(order, promotionMask, currentLimits).stream()
+                .filter(PaymentPlan::isFullyPaid)
+                .toList();
+        counters.recordGenerated(possiblePlans.size());
+        return possiblePlans;
+    }
+
+    // same choice as generatePossiblePlans followed by PLAN_PREFERENCE, but candidates stay in a
+    // per-thread primitive buffer and only the winner becomes a PaymentPlan; null when nothing fits
+    public PaymentPlan selectBestPlan(Order order, long promotionMask, long[] currentLimits) {
+        return selectBestPlan(order, promotionMask, currentLimits, null, 0);
+    }
+
+    // selectBestPlan that records its candidates and rejections in tallies[offset..] (see
+    // CandidateCounters.TALLY_SLOTS) instead of the counters, for a plan that may not be used;
+    // CandidateCounters.addTally counts it once it is. Shared counters when tallies is null
+    PaymentPlan selectBestPlan(Order order, long promotionMask, long[] currentLimits, int[] tallies, int offset) {
+        CandidateBuffer candidates = buffers.get();
+        fillCandidates(order, promotionMask, currentLimits, candidates, tallies, offset);
+
+        long orderValue = order.getTotalOrderValueCents();
+        int best = -1;
+        int fullyPaid = 0;
+        for (int index = 0; index < candidates.size(); index++) {
+            // PaymentPlan.isFullyPaid
+            if (candidates.points(index) + candidates.cash(index) < orderValue) continue;
+            fullyPaid++;
+            if (best < 0 || candidates.preferred(index, best)) {
+                best = index;
+            }
+        }
+        if (tallies == null) {
+            counters.recordGenerated(fullyPaid);
+        } else {
+            tallies[offset] += fullyPaid;
+        }
+        return best < 0 ? null : toPlan(order, candidates, best);
+    }
+
+    // best candidate, discounted shapes included, whose points and cash both fit the limits;
+    // unlike selectBestPlan it is not restricted to the isFullyPaid plans. null when nothing fits
+    public PaymentPlan selectBestCandidate(Order order, long promotionMask, long[] currentLimits) {
+        CandidateBuffer candidates = buffers.get();
+        fillCandidates(order, promotionMask, currentLimits, candidates, null, 0);
+
+        long availablePoints = registry.availablePoints(currentLimits);
+        int best = -1;
+        for (int index = 0; index < candidates.size(); index++) {
+            if (candidates.points(index) > availablePoints) continue;
+            if (candidates.cash(index) > 0 && currentLimits[candidates.method(index)] < candidates.cash(index)) continue;
+            if (best < 0 || candidates.preferred(index, best)) {
+                best = index;
+            }
+        }
+        return best < 0 ? null : toPlan(order, candidates, best);
+    }
+
+    // every plan shape with its own discount applied, before the isFullyPaid filter; a candidate
+    // always has points + cash == final amount, but its usage is only checked against the limits
+    // that decide which cards get a plan at all.
+    // Limits are only compared with (or clamped to) amounts up to the order value, so any limit
+    // covering the whole order gives the same plans; PaymentOptimizer relies on that.
+    public List<PaymentPlan> generateCandidatePlans(
+            Order order,
+            long promotionMask,
+            long[] currentLimits
+    ) {
+        CandidateBuffer candidates = buffers.get();
+        fillCandidates(order, promotionMask, currentLimits, candidates, null, 0);
+
+        List<PaymentPlan> possiblePlans = new ArrayList<>(candidates.size());
+        for (int index = 0; index < candidates.size(); index++) {
+            possiblePlans.add(toPlan(order, candidates, index));
+        }
+        return possiblePlans.stream()
+                .distinct()
+                .toList();
+    }
+
+    // the candidates of generateCandidatePlans, duplicates included, in this thread's buffer; they
+    // stay there until the thread's next call into this calculator
+    CandidateBuffer fillCandidates(Order order, long promotionMask, long[] currentLimits) {
+        CandidateBuffer candidates = buffers.get();
+        fillCandidates(order, promotionMask, currentLimits, candidates, null, 0);
+        return candidates;
+    }
+
+    private void reject(LimitCheck check, int[] tallies, int offset) {
+        if (tallies == null) {
+            counters.recordRejected(check);
+        } else {
+            tallies[offset + 1 + check.ordinal()]++;
+        }
+    }
+
+    private PaymentPlan toPlan(Order order, CandidateBuffer candidates, int index) {
+        return new PaymentPlan(order.getOrderId(), registry.idOf(candidates.method(index)), order.getTotalOrderValueCents(),
+                candidates.points(index), candidates.cash(index), candidates.discount(index), candidates.finalAmount(index));
+    }
+
+    private void fillCandidates(Order order, long promotionMask, long[] currentLimits, CandidateBuffer candidates,
+                                int[] tallies, int offset) {
+        candidates.clear();
+
+        long orderValue = order.getTotalOrderValueCents();
+        long availablePoints = registry.availablePoints(currentLimits);
+        long cardMask = registry.cardMask();
+        int pointsOrdinal = registry.getPointsOrdinal();
+        long coveredByFullCard = 0L;
+
+        //FULL PAYMENT WITH CARD
+        for (long remaining = promotionMask & cardMask; remaining != 0; remaining &= remaining - 1) {
+            int card = Long.numberOfTrailingZeros(remaining);
+            long cardDiscountValue = Money.percentOf(orderValue, registry.discountBasisPoints(card));
+            long cashAmountNeeded = orderValue - cardDiscountValue;
+
+            if (currentLimits[card] >= cashAmountNeeded) {
+                candidates.add(card, 0L, cashAmountNeeded, cardDiscountValue, cashAmountNeeded);
+                if (cardDiscountValue > 0) {
+                    coveredByFullCard |= 1L << card;
+                }
+            } else {
+                reject(LimitCheck.FULL_CARD_LIMIT, tallies, offset);
+            }
+        }
+
+        //FULL PAYMENT WITH POINTS
+        if(registry.hasPointsMethod()) {
+            long pointsDiscountValue = Money.percentOf(orderValue, registry.discountBasisPoints(pointsOrdinal));
+            long pointsAmountNeeded = orderValue - pointsDiscountValue;
+
+            if(availablePoints >= pointsDiscountValue) {
+                candidates.add(pointsOrdinal, pointsAmountNeeded, 0L, pointsDiscountValue, pointsAmountNeeded);
+            } else {
+                reject(LimitCheck.FULL_POINTS_LIMIT, tallies, offset);
+            }
+        }
+
+        //PARTIAL PAYMENT WITH POINTS
+        long tenPercentForOrder = Money.percentOf(orderValue, TEN_PERCENT_BASIS_POINTS);
+
+        if(availablePoints >= tenPercentForOrder) {
+            long amountDueAfterDiscount = orderValue - tenPercentForOrder;
+
+            long pointsToCommit = Math.min(availablePoints, amountDueAfterDiscount);
+            if(pointsToCommit < tenPercentForOrder) {
+                pointsToCommit = tenPercentForOrder;
+            }
+            pointsToCommit = Math.min(pointsToCommit, availablePoints);
+            pointsToCommit = Math.min(pointsToCommit, Math.max(amountDueAfterDiscount, tenPercentForOrder));
+
+            if(pointsToCommit > 0 && availablePoints >= pointsToCommit) {
+                long cashAmountNeeded = amountDueAfterDiscount - pointsToCommit;
+
+                if(cashAmountNeeded < 0)
+                    cashAmountNeeded = 0;
+
+                if(pointsToCommit < 0)
+                    pointsToCommit = 0;
+
+                if(cashAmountNeeded == 0) {
+                    if(pointsToCommit >= tenPercentForOrder && availablePoints >= pointsToCommit) {
+                        candidates.add(pointsOrdinal, pointsToCommit, 0L, tenPercentForOrder, pointsToCommit);
+                    }
+                }
+            }
+
+            //PARTIAL PAYMENT WITH POINTS, REST WITH CARD (the smallest points share that earns the discount)
+            long cashAmountNeeded = amountDueAfterDiscount - tenPercentForOrder;
+            if(tenPercentForOrder > 0 && cashAmountNeeded > 0) {
+                for (long remaining = cardMask; remaining != 0; remaining &= remaining - 1) {
+                    int card = Long.numberOfTrailingZeros(remaining);
+                    if(currentLimits[card] >= cashAmountNeeded) {
+                        candidates.add(card, tenPercentForOrder, cashAmountNeeded, tenPercentForOrder, amountDueAfterDiscount);
+                    } else {
+                        reject(LimitCheck.PARTIAL_SPLIT_CARD_LIMIT, tallies, offset);
+                    }
+                }
+            }
+        } else {
+            reject(LimitCheck.PARTIAL_POINTS_LIMIT, tallies, offset);
+        }
+
+        //NO DISCOUNT
+        for (long remaining = cardMask & ~coveredByFullCard; remaining != 0; remaining &= remaining - 1) {
+            int card = Long.numberOfTrailingZeros(remaining);
+            if(currentLimits[card] >= orderValue) {
+                candidates.add(card, 0L, orderValue, 0L, orderValue);
+            } else {
+                reject(LimitCheck.NO_DISCOUNT_CARD_LIMIT, tallies, offset);
+            }
+        }
+
+        //POINTS WITHOUT 10% DISCOUNT (extra points left)
+        if(availablePoints > 0) {
+            long maxPointsForCase = Math.max(tenPercentForOrder - ONE_CENT, 0L);
+            long pointsToAttempt = Math.min(availablePoints, maxPointsForCase);
+            pointsToAttempt = Math.min(pointsToAttempt, orderValue);
+
+            if(pointsToAttempt > 0) {
+                long cashAmountNeeded = orderValue - pointsToAttempt;
+                if(cashAmountNeeded < 0)
+                    cashAmountNeeded = 0;
+
+                if(cashAmountNeeded == 0) {
+                    candidates.add(pointsOrdinal, pointsToAttempt, 0L, 0L, pointsToAttempt);
+                } else {
+                    for (long remaining = cardMask; remaining != 0; remaining &= remaining - 1) {
+                        int card = Long.numberOfTrailingZeros(remaining);
+                        if(currentLimits[card] >= cashAmountNeeded) {
+                            candidates.add(card, pointsToAttempt, cashAmountNeeded, 0L, pointsToAttempt + cashAmountNeeded);
+                        } else {
+                            reject(LimitCheck.POINTS_TOP_UP_CARD_LIMIT, tallies, offset);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Assigns every payment method a dense ordinal (its position in the definition list),
+// so limits can live in a long[] ledger and promotions in a long bitmask.
+public class PaymentMethodRegistry {
+
+    public static final String POINTS_METHOD_ID = "PUNKTY";
+    public static final int UNKNOWN_METHOD = -1;
+    public static final int MAX_METHODS = Long.SIZE;
+
+    private final List<PaymentMethod> methods;
+    private final Map<String, Integer> ordinalsById;
+    private final String[] ids;
+    private final long[] discountBasisPoints;
+    private final long[] initialLimits;
+    private final int pointsOrdinal;
+    private final long cardMask;
+
+    public PaymentMethodRegistry(List<PaymentMethod> paymentMethods) {
+        if (paymentMethods.size() > MAX_METHODS) {
+            throw new IllegalArgumentException("At most " + MAX_METHODS + " payment methods are supported, got " + paymentMethods.size());
+        }
+
+        this.methods = List.copyOf(paymentMethods);
+        this.ordinalsById = new HashMap<>();
+        this.ids = new String[methods.size()];
+        this.discountBasisPoints = new long[methods.size()];
+        this.initialLimits = new long[methods.size()];
+
+        int points = UNKNOWN_METHOD;
+        long cards = 0L;
+        for (int ordinal = 0; ordinal < methods.size(); ordinal++) {
+            PaymentMethod method = methods.get(ordinal);
+            if (ordinalsById.putIfAbsent(method.getId(), ordinal) != null) {
+                throw new IllegalArgumentException("Duplicate payment method id: " + method.getId());
+            }
+            ids[ordinal] = method.getId();
+            discountBasisPoints[ordinal] = method.getDiscountBasisPoints();
+            initialLimits[ordinal] = method.getLimitCents();
+
+            if (POINTS_METHOD_ID.equals(method.getId())) {
+                points = ordinal;
+            } else {
+                cards |= 1L << ordinal;
+            }
+        }
+        this.pointsOrdinal = points;
+        this.cardMask = cards;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public List<PaymentMethod> getMethods() {
+        return methods;
+    }
+
+    public int ordinalOf(String methodId) {
+        Integer ordinal = ordinalsById.get(methodId);
+        return ordinal != null ? ordinal : UNKNOWN_METHOD;
+    }
+
+    public String idOf(int ordinal) {
+        return ids[ordinal];
+    }
+
+    public PaymentMethod methodAt(int ordinal) {
+        return methods.get(ordinal);
+    }
+
+    public long discountBasisPoints(int ordinal) {
+        return discountBasisPoints[ordinal];
+    }
+
+    public long initialLimit(int ordinal) {
+        return initialLimits[ordinal];
+    }
+
+    public boolean hasPointsMethod() {
+        return pointsOrdinal != UNKNOWN_METHOD;
+    }
+
+    public int getPointsOrdinal() {
+        return pointsOrdinal;
+    }
+
+    public boolean isPoints(int ordinal) {
+        return ordinal == pointsOrdinal;
+    }
+
+    public long cardMask() {
+        return cardMask;
+    }
+
+    public long[] newLimitLedger() {
+        return initialLimits.clone();
+    }
+
+    public long availablePoints(long[] limits) {
+        return pointsOrdinal != UNKNOWN_METHOD ? limits[pointsOrdinal] : 0L;
+    }
+
+    // the limit a plan's cash is charged to, UNKNOWN_METHOD when it has no cash or pays it with
+    // PUNKTY; its points are always charged to PUNKTY
+    public int cashOrdinal(PaymentPlan plan) {
+        if (plan.getCashAmountCents() <= 0 || POINTS_METHOD_ID.equals(plan.getPaymentMethodId())) return UNKNOWN_METHOD;
+        int ordinal = ordinalOf(plan.getPaymentMethodId());
+        if (ordinal == UNKNOWN_METHOD) {
+            throw new IllegalArgumentException("Unknown payment method: " + plan.getPaymentMethodId());
+        }
+        return ordinal;
+    }
+
+    public boolean fits(PaymentPlan plan, long[] limits) {
+        if (plan.getPointsAmountCents() > 0 && plan.getPointsAmountCents() > availablePoints(limits)) return false;
+        int cashOrdinal = cashOrdinal(plan);
+        return cashOrdinal == UNKNOWN_METHOD || limits[cashOrdinal] >= plan.getCashAmountCents();
+    }
+
+    // takes the plan's points and cash off the limits, without checking that they fit
+    public void charge(PaymentPlan plan, long[] limits) {
+        if (plan.getPointsAmountCents() > 0) limits[pointsOrdinal] -= plan.getPointsAmountCents();
+        int cashOrdinal = cashOrdinal(plan);
+        if (cashOrdinal != UNKNOWN_METHOD) limits[cashOrdinal] -= plan.getCashAmountCents();
+    }
+
+    // gives back what charge took
+    public void refund(PaymentPlan plan, long[] limits) {
+        if (plan.getPointsAmountCents() > 0) limits[pointsOrdinal] += plan.getPointsAmountCents();
+        int cashOrdinal = cashOrdinal(plan);
+        if (cashOrdinal != UNKNOWN_METHOD) limits[cashOrdinal] += plan.getCashAmountCents();
+    }
+
+    // promotions of an order as a mask of card ordinals; PUNKTY and unknown ids are dropped
+    public long promotionMask(Order order) {
+        List<String> promotions = order.getPromotions();
+        if (promotions == null) return 0L;
+
+        long mask = 0L;
+        for (String methodId : promotions) {
+            int ordinal = ordinalOf(methodId);
+            if (ordinal != UNKNOWN_METHOD) {
+                mask |= 1L << ordinal;
+            }
+        }
+        return mask & cardMask;
+    }
+
+    public long[] promotionMasks(List<Order> orders) {
+        long[] masks = new long[orders.size()];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = promotionMask(orders.get(i));
+        }
+        return masks;
+    }
+}
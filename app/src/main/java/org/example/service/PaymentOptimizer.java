@@ -0,0 +1,355 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.example.service.PaymentMethodRegistry.POINTS_METHOD_ID;
+
+public class PaymentOptimizer implements PaymentSolver {
+
+    private final PaymentCalculator paymentCalculator;
+    private final PaymentMethodRegistry registry;
+    private final boolean parallelCandidates;
+    private final PointsStrategy pointsStrategy;
+    private volatile OptimizerMetrics lastMetrics;
+
+    public PaymentOptimizer(List<PaymentMethod> allPaymentMethodsDefinition) {
+        this(allPaymentMethodsDefinition, false);
+    }
+
+    // parallelCandidates: plans for the remaining orders are generated up front on the fork-join
+    // pool and only regenerated when a commit invalidated them; the result is the same either way
+    public PaymentOptimizer(List<PaymentMethod> allPaymentMethodsDefinition, boolean parallelCandidates) {
+        this(allPaymentMethodsDefinition, parallelCandidates, PointsStrategy.SMALLEST_FIRST);
+    }
+
+    public PaymentOptimizer(List<PaymentMethod> allPaymentMethodsDefinition, boolean parallelCandidates, PointsStrategy pointsStrategy) {
+        this.registry = new PaymentMethodRegistry(allPaymentMethodsDefinition);
+        this.paymentCalculator = new PaymentCalculator(registry);
+        this.parallelCandidates = parallelCandidates;
+        this.pointsStrategy = pointsStrategy;
+    }
+
+    public PaymentMethodRegistry getRegistry() {
+        return registry;
+    }
+
+    public PointsStrategy getPointsStrategy() {
+        return pointsStrategy;
+    }
+
+    // metrics of the latest optimizePayments call, null before the first one; counters are shared,
+    // so runs overlapping on one optimizer see each other's candidates
+    public OptimizerMetrics getLastMetrics() {
+        return lastMetrics;
+    }
+
+    // (order, promoted card) candidates of the card promotion pass as columns, in input order and
+    // by card ordinal within an order
+    private final class CardPromotions {
+        final int size;
+        final int[] order;
+        final int[] card;
+        final long[] value;
+        final long[] discount;
+        final long[] cost;
+
+        CardPromotions(OrderColumns columns) {
+            int pairs = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                pairs += Long.bitCount(columns.promotionMask(i));
+            }
+            size = pairs;
+            order = new int[pairs];
+            card = new int[pairs];
+            value = new long[pairs];
+            long[] basisPoints = new long[pairs];
+
+            int pair = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                for (long remaining = columns.promotionMask(i); remaining != 0; remaining &= remaining - 1) {
+                    order[pair] = i;
+                    card[pair] = Long.numberOfTrailingZeros(remaining);
+                    value[pair] = columns.valueCents(i);
+                    basisPoints[pair] = registry.discountBasisPoints(card[pair]);
+                    pair++;
+                }
+            }
+            discount = DiscountKernels.percentOf(value, basisPoints, new long[pairs]);
+            cost = DiscountKernels.subtract(value, discount, new long[pairs]);
+        }
+
+        // Prefer higher discount, then smaller orders
+        int[] byPreference() {
+            return IndexSort.sorted(size, (left, right) -> discount[left] != discount[right]
+                    ? Long.compare(discount[right], discount[left])
+                    : Long.compare(value[left], value[right]));
+        }
+    }
+
+    @Override
+    public List<PaymentPlan> optimizePayments(List<Order> orders) {
+        return optimizePayments(orders, registry.newLimitLedger());
+    }
+
+    // same passes, starting from what is left of the limits, e.g. after plans kept from an earlier run
+    public List<PaymentPlan> optimizePayments(List<Order> orders, long[] remainingLimits) {
+        return optimizePayments(orders, remainingLimits, plan -> {});
+    }
+
+    // onCommit sees every plan the moment it is chosen, e.g. to stream it out while the rest is planned
+    public List<PaymentPlan> optimizePayments(List<Order> orders, Consumer<PaymentPlan> onCommit) {
+        return optimizePayments(orders, registry.newLimitLedger(), onCommit);
+    }
+
+    public List<PaymentPlan> optimizePayments(List<Order> orders, long[] remainingLimits, Consumer<PaymentPlan> onCommit) {
+        return optimizePayments(orders, registry.promotionMasks(orders), remainingLimits, onCommit);
+    }
+
+    // promotionMasks as from registry.promotionMasks(orders), or from any registry with the same
+    // method ids in the same order, e.g. shared by the scenarios of a ScenarioBatch
+    List<PaymentPlan> optimizePayments(List<Order> orders, long[] promotionMasks, long[] remainingLimits, Consumer<PaymentPlan> onCommit) {
+        return optimizePayments(orders, promotionMasks, remainingLimits, onCommit, true);
+    }
+
+    // without the warnings about unpaid orders, for solvers that only start from these plans
+    List<PaymentPlan> optimizeQuietly(List<Order> orders) {
+        return optimizePayments(orders, registry.promotionMasks(orders), registry.newLimitLedger(), plan -> {}, false);
+    }
+
+    // like optimizePayments(orders, onCommit), but the plans are only handed to onCommit and not
+    // collected, for callers that stream them out and summarise them on the way
+    public void planPayments(List<Order> orders, Consumer<PaymentPlan> onCommit) {
+        planPayments(orders, registry.promotionMasks(orders), registry.newLimitLedger(), onCommit, true);
+    }
+
+    private List<PaymentPlan> optimizePayments(List<Order> orders, long[] promotionMasks, long[] remainingLimits,
+                                               Consumer<PaymentPlan> onCommit, boolean warnUnpaid) {
+        List<PaymentPlan> chosenPlans = new ArrayList<>();
+        planPayments(orders, promotionMasks, remainingLimits, plan -> {
+            chosenPlans.add(plan);
+            onCommit.accept(plan);
+        }, warnUnpaid);
+        return chosenPlans;
+    }
+
+    private void planPayments(List<Order> orders, long[] promotionMasks, long[] remainingLimits,
+                              Consumer<PaymentPlan> onCommit, boolean warnUnpaid) {
+        long totalDiscountCents = 0L;
+        long[] currentLimits = remainingLimits.clone();
+        OrderColumns columns = OrderColumns.of(orders, promotionMasks);
+        int pointsOrdinal = registry.getPointsOrdinal();
+        CandidateCounters counters = paymentCalculator.getCounters();
+        long generatedAtStart = counters.generated();
+        Map<LimitCheck, Long> rejectedAtStart = counters.rejectedByCheck();
+        OptimizationRunEvent runEvent = new OptimizationRunEvent();
+        runEvent.begin();
+
+        // by position in orders, which is also the column index
+        boolean[] paid = new boolean[orders.size()];
+        int paidCount = 0;
+
+        //Find best card promotion
+        OptimizerPhaseEvent promotionPass = beginPhase("card promotion", counters);
+        CardPromotions cardPromotions = new CardPromotions(columns);
+        for (int promo : cardPromotions.byPreference()) {
+            int i = cardPromotions.order[promo];
+            int card = cardPromotions.card[promo];
+            long cost = cardPromotions.cost[promo];
+            if (paid[i]) continue;
+
+            if (currentLimits[card] >= cost) {
+                PaymentPlan plan = new PaymentPlan(columns.id(i), registry.idOf(card),
+                        columns.valueCents(i), 0L, cost, cardPromotions.discount[promo], cost);
+                onCommit.accept(plan);
+                totalDiscountCents += plan.getDiscountCents();
+                paid[i] = true;
+                paidCount++;
+                currentLimits[card] -= cost;
+            } else {
+                counters.recordRejected(LimitCheck.PROMOTION_PASS_CARD_LIMIT);
+            }
+        }
+        int promotionPassPaid = paidCount;
+        endPhase(promotionPass, promotionPassPaid, counters);
+
+        OptimizerPhaseEvent pointsPass = beginPhase(pointsStrategy == PointsStrategy.KNAPSACK ? "points allocation" : "full points", counters);
+
+        if (registry.hasPointsMethod() && pointsStrategy == PointsStrategy.KNAPSACK) {
+            // the allocator returns plans in its own order, so they are matched back by order id
+            Map<String, Integer> unpaidPositions = new LinkedHashMap<>();
+            for (int i = 0; i < orders.size(); i++) {
+                if (!paid[i]) unpaidPositions.putIfAbsent(orders.get(i).getOrderId(), i);
+            }
+            List<Order> unpaidOrders = unpaidPositions.values().stream().map(orders::get).toList();
+            for (PaymentPlan plan : new PointsAllocator(registry).allocate(unpaidOrders, currentLimits)) {
+                onCommit.accept(plan);
+                totalDiscountCents += plan.getDiscountCents();
+                paid[unpaidPositions.get(plan.getOrderId())] = true;
+                paidCount++;
+            }
+        } else if (registry.hasPointsMethod()) {
+            //Find best full points payment
+            long[] discounts = columns.discounts(registry.discountBasisPoints(pointsOrdinal));
+            long[] costs = columns.costsAfter(discounts);
+            // Prioritize: smaller orders first to clear them with points, or higher discount % (already fixed by pointsMethodDef)
+            int[] bySize = IndexSort.sorted(columns.size(), (left, right) -> columns.valueCents(left) != columns.valueCents(right)
+                    ? Long.compare(columns.valueCents(left), columns.valueCents(right))
+                    : Long.compare(discounts[right], discounts[left]));
+
+            for (int i : bySize) {
+                if (paid[i]) continue;
+
+                if (currentLimits[pointsOrdinal] >= costs[i]) {
+                    PaymentPlan plan = new PaymentPlan(columns.id(i), POINTS_METHOD_ID,
+                            columns.valueCents(i), costs[i], 0L, discounts[i], costs[i]);
+                    onCommit.accept(plan);
+                    totalDiscountCents += plan.getDiscountCents();
+                    paid[i] = true;
+                    paidCount++;
+                    currentLimits[pointsOrdinal] -= costs[i];
+                } else {
+                    counters.recordRejected(LimitCheck.POINTS_PASS_POINTS_LIMIT);
+                }
+            }
+        }
+        int pointsPassPaid = paidCount - promotionPassPaid;
+        endPhase(pointsPass, pointsPassPaid, counters);
+
+        OptimizerPhaseEvent remainingPass = beginPhase("remaining orders", counters);
+
+        //process remaining orders
+        int[] remainingIndexes = Arrays.stream(IndexSort.sorted(columns.size(),
+                        (left, right) -> Long.compare(columns.valueCents(right), columns.valueCents(left)))) // Process larger remaining orders first
+                .filter(i -> !paid[i])
+                .toArray();
+        List<Order> remainingOrders = Arrays.stream(remainingIndexes).mapToObj(orders::get).toList();
+        long[] remainingMasks = Arrays.stream(remainingIndexes).mapToLong(columns::promotionMask).toArray();
+
+        long[] snapshot = currentLimits.clone();
+        int[] speculativeTallies = parallelCandidates ? new int[remainingOrders.size() * CandidateCounters.TALLY_SLOTS] : null;
+        PaymentPlan[] speculativePlans = parallelCandidates
+                ? speculateBestPlans(remainingOrders, remainingMasks, snapshot, speculativeTallies) : null;
+
+        for (int r = 0; r < remainingOrders.size(); r++) {
+            Order order = remainingOrders.get(r);
+
+            PaymentPlan bestPlan;
+            if (speculativePlans != null && speculativePlans[r] != null && isUnaffected(order, snapshot, currentLimits)) {
+                // unaffected limits give the same candidates and rejections as generating them now
+                bestPlan = speculativePlans[r];
+                counters.addTally(speculativeTallies, r * CandidateCounters.TALLY_SLOTS);
+            } else {
+                bestPlan = paymentCalculator.selectBestPlan(order, remainingMasks[r], currentLimits);
+            }
+
+            if (bestPlan != null) {
+                onCommit.accept(bestPlan);
+                totalDiscountCents += bestPlan.getDiscountCents();
+                paid[remainingIndexes[r]] = true;
+                paidCount++;
+
+                registry.charge(bestPlan, currentLimits);
+            } else if (warnUnpaid) {
+                System.err.println("Warning: Could not find any payment plan for order: " + order.getOrderId() + " with current limits.");
+            }
+        }
+
+        int remainingPassPaid = paidCount - promotionPassPaid - pointsPassPaid;
+        endPhase(remainingPass, remainingPassPaid, counters);
+
+        int unpaidOrders = orders.size() - paidCount;
+        lastMetrics = buildMetrics(promotionPass, pointsPass, remainingPass, promotionPassPaid, pointsPassPaid,
+                remainingPassPaid, unpaidOrders, generatedAtStart, rejectedAtStart, currentLimits);
+
+        runEvent.end();
+        if (runEvent.shouldCommit()) {
+            runEvent.orders = orders.size();
+            runEvent.unpaidOrders = unpaidOrders;
+            runEvent.totalDiscountCents = totalDiscountCents;
+            runEvent.commit();
+        }
+
+        if (warnUnpaid && paidCount != orders.size()) {
+            System.err.println("Warning: Not all orders were processed. Unpaid order IDs: " +
+                    IntStream.range(0, orders.size()).filter(i -> !paid[i])
+                            .mapToObj(i -> orders.get(i).getOrderId()).collect(Collectors.joining(", ")));
+        }
+    }
+
+    // counter values at the start of the phase are parked in the event until endPhase
+    private OptimizerPhaseEvent beginPhase(String phase, CandidateCounters counters) {
+        OptimizerPhaseEvent event = new OptimizerPhaseEvent();
+        event.phase = phase;
+        event.candidatesGenerated = counters.generated();
+        event.candidatesRejected = counters.totalRejected();
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    private void endPhase(OptimizerPhaseEvent event, int ordersPaid, CandidateCounters counters) {
+        event.end();
+        event.nanos = System.nanoTime() - event.startNanos;
+        event.ordersPaid = ordersPaid;
+        event.candidatesGenerated = counters.generated() - event.candidatesGenerated;
+        event.candidatesRejected = counters.totalRejected() - event.candidatesRejected;
+        event.commit();
+    }
+
+    private OptimizerMetrics buildMetrics(OptimizerPhaseEvent promotionPass, OptimizerPhaseEvent pointsPass,
+                                          OptimizerPhaseEvent remainingPass, int promotionPassPaid, int pointsPassPaid,
+                                          int remainingPassPaid, int unpaidOrders, long generatedAtStart,
+                                          Map<LimitCheck, Long> rejectedAtStart, long[] currentLimits) {
+        CandidateCounters counters = paymentCalculator.getCounters();
+        Map<LimitCheck, Long> rejected = new EnumMap<>(LimitCheck.class);
+        counters.rejectedByCheck().forEach((check, count) -> rejected.put(check, count - rejectedAtStart.get(check)));
+
+        Map<String, Long> initialLimits = new LinkedHashMap<>();
+        Map<String, Long> used = new LinkedHashMap<>();
+        for (int method = 0; method < registry.size(); method++) {
+            initialLimits.put(registry.idOf(method), registry.initialLimit(method));
+            used.put(registry.idOf(method), registry.initialLimit(method) - currentLimits[method]);
+        }
+
+        return new OptimizerMetrics(
+                promotionPass.nanos, pointsPass.nanos, remainingPass.nanos,
+                promotionPassPaid, pointsPassPaid, remainingPassPaid, unpaidOrders,
+                counters.generated() - generatedAtStart,
+                Collections.unmodifiableMap(rejected), Collections.unmodifiableMap(initialLimits), Collections.unmodifiableMap(used));
+    }
+
+    // best plan of every order against the snapshot, null where no plan exists; candidates and
+    // rejections go to the order's tally, so only the plans that are used get counted
+    private PaymentPlan[] speculateBestPlans(List<Order> orders, long[] promotionMasks, long[] snapshot, int[] tallies) {
+        PaymentPlan[] plans = new PaymentPlan[orders.size()];
+        IntStream.range(0, orders.size()).parallel().forEach(r ->
+                plans[r] = paymentCalculator.selectBestPlan(orders.get(r), promotionMasks[r], snapshot, tallies, r * CandidateCounters.TALLY_SLOTS));
+        return plans;
+    }
+
+    // PaymentCalculator never compares a limit with more than the order value, so a limit that
+    // changed since the snapshot but still covers the whole order yields the same plans
+    private boolean isUnaffected(Order order, long[] snapshot, long[] currentLimits) {
+        long orderValue = order.getTotalOrderValueCents();
+        for (int method = 0; method < currentLimits.length; method++) {
+            if (currentLimits[method] != snapshot[method] && currentLimits[method] < orderValue) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Map<String, BigDecimal> calculateSpendingSummary(List<PaymentPlan> chosenPlans) {
+        SpendingSummary summary = new SpendingSummary();
+        chosenPlans.forEach(summary::add);
+        return summary.toBigDecimals();
+    }
+}
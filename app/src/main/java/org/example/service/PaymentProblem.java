@@ -0,0 +1,235 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.model.Order;
+import org.example.model.PaymentPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.service.PaymentMethodRegistry.POINTS_METHOD_ID;
+
+// Discrete view of a batch for the search-based solvers: every order picks exactly one option.
+// Options mixing points and card leave the exact points split open; AllocationState decides it.
+public class PaymentProblem {
+
+    public static final int CARD_PROMOTION = 0;
+    public static final int FULL_POINTS = 1;
+    public static final int PARTIAL_POINTS = 2;
+    public static final int NO_DISCOUNT = 3;
+    public static final int UNPAID = 4;
+
+    private static final int KIND_SHIFT = 8;
+    private static final int METHOD_MASK = (1 << KIND_SHIFT) - 1;
+    private static final long TEN_PERCENT_BASIS_POINTS = 1_000L;
+
+    private final PaymentMethodRegistry registry;
+    private final List<Order> orders;
+    private final long[] values;
+    private final long[] promotionMasks;
+    private final long[] tenPercent;
+    private final int[][] options;
+    private final long unpaidPenalty;
+
+    public PaymentProblem(PaymentMethodRegistry registry, List<Order> orders) {
+        this.registry = registry;
+        this.orders = orders;
+        this.values = new long[orders.size()];
+        this.promotionMasks = registry.promotionMasks(orders);
+        this.tenPercent = new long[orders.size()];
+        this.options = new int[orders.size()][];
+
+        long totalValue = 0L;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = orders.get(i).getTotalOrderValueCents();
+            tenPercent[i] = Money.percentOf(values[i], TEN_PERCENT_BASIS_POINTS);
+            options[i] = enumerateOptions(promotionMasks[i]);
+            totalValue = Math.addExact(totalValue, values[i]);
+        }
+        // leaving an order unpaid must never pay off, whatever it frees up for the others
+        this.unpaidPenalty = totalValue + 1;
+    }
+
+    public static int option(int kind, int method) {
+        return kind << KIND_SHIFT | method;
+    }
+
+    public static int kindOf(int option) {
+        return option >>> KIND_SHIFT;
+    }
+
+    public static int methodOf(int option) {
+        return option & METHOD_MASK;
+    }
+
+    private int[] enumerateOptions(long promotionMask) {
+        int pointsOrdinal = registry.getPointsOrdinal();
+        long cardMask = registry.cardMask();
+        int count = Long.bitCount(promotionMask)
+                + (registry.hasPointsMethod() ? 1 + Long.bitCount(cardMask) : 0)
+                + Long.bitCount(cardMask)
+                + 1;
+
+        int[] result = new int[count];
+        int next = 0;
+        for (long remaining = promotionMask; remaining != 0; remaining &= remaining - 1) {
+            result[next++] = option(CARD_PROMOTION, Long.numberOfTrailingZeros(remaining));
+        }
+        if (registry.hasPointsMethod()) {
+            result[next++] = option(FULL_POINTS, pointsOrdinal);
+            for (long remaining = cardMask; remaining != 0; remaining &= remaining - 1) {
+                result[next++] = option(PARTIAL_POINTS, Long.numberOfTrailingZeros(remaining));
+            }
+        }
+        for (long remaining = cardMask; remaining != 0; remaining &= remaining - 1) {
+            result[next++] = option(NO_DISCOUNT, Long.numberOfTrailingZeros(remaining));
+        }
+        result[next] = option(UNPAID, 0);
+        return result;
+    }
+
+    public PaymentMethodRegistry getRegistry() {
+        return registry;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public int[] optionsOf(int order) {
+        return options[order];
+    }
+
+    public long value(int order) {
+        return values[order];
+    }
+
+    public long promotionMask(int order) {
+        return promotionMasks[order];
+    }
+
+    public long getUnpaidPenalty() {
+        return unpaidPenalty;
+    }
+
+    // contribution of an option to the objective: the discount, or the penalty for leaving the order unpaid
+    public long discount(int order, int option) {
+        return switch (kindOf(option)) {
+            case CARD_PROMOTION, FULL_POINTS -> Money.percentOf(values[order], registry.discountBasisPoints(methodOf(option)));
+            case PARTIAL_POINTS -> tenPercent[order];
+            case NO_DISCOUNT -> 0L;
+            default -> -unpaidPenalty;
+        };
+    }
+
+    // amount taken from the option's method when the amount does not depend on the points split
+    public long fixedUsage(int order, int option) {
+        int kind = kindOf(option);
+        if (kind == CARD_PROMOTION || kind == FULL_POINTS) {
+            return values[order] - discount(order, option);
+        }
+        return 0L;
+    }
+
+    // amount still to pay with points + card for the split options
+    public long due(int order, int option) {
+        return switch (kindOf(option)) {
+            case PARTIAL_POINTS -> values[order] - tenPercent[order];
+            case NO_DISCOUNT -> values[order];
+            default -> 0L;
+        };
+    }
+
+    public long minPoints(int order, int option) {
+        return kindOf(option) == PARTIAL_POINTS ? tenPercent[order] : 0L;
+    }
+
+    public long maxPoints(int order, int option) {
+        return switch (kindOf(option)) {
+            case PARTIAL_POINTS -> values[order] - tenPercent[order];
+            case NO_DISCOUNT -> registry.hasPointsMethod() ? Math.max(tenPercent[order] - 1, 0L) : 0L;
+            default -> 0L;
+        };
+    }
+
+    public boolean isSplit(int option) {
+        int kind = kindOf(option);
+        return kind == PARTIAL_POINTS || kind == NO_DISCOUNT;
+    }
+
+    // the option a finished plan corresponds to, -1 when it matches none of the order's options
+    public int optionOf(int order, PaymentPlan plan) {
+        int method = registry.ordinalOf(plan.getPaymentMethodId());
+        for (int option : options[order]) {
+            int kind = kindOf(option);
+            if (kind == UNPAID || discount(order, option) != plan.getDiscountCents()) continue;
+            if (kind == CARD_PROMOTION && plan.getPointsAmountCents() != 0) continue;
+            if (kind == FULL_POINTS && plan.getCashAmountCents() != 0) continue;
+            // buildPlans names PUNKTY on split plans that ended up without cash
+            if (methodOf(option) == method || isSplit(option) && plan.getCashAmountCents() == 0) return option;
+        }
+        return -1;
+    }
+
+    public long objective(int[] assignment) {
+        long total = 0L;
+        for (int i = 0; i < assignment.length; i++) {
+            total += discount(i, assignment[i]);
+        }
+        return total;
+    }
+
+    public int countUnpaid(int[] assignment) {
+        int unpaid = 0;
+        for (int option : assignment) {
+            if (kindOf(option) == UNPAID) unpaid++;
+        }
+        return unpaid;
+    }
+
+    public List<PaymentPlan> buildPlans(int[] assignment) {
+        AllocationState state = new AllocationState(this);
+        for (int i = 0; i < assignment.length; i++) {
+            state.add(i, assignment[i]);
+        }
+
+        // points above each split order's minimum go to the earliest orders on the same card
+        long[] extraPoints = new long[registry.size()];
+        for (int card = 0; card < extraPoints.length; card++) {
+            extraPoints[card] = state.extraPointsOnCard(card);
+        }
+
+        List<PaymentPlan> plans = new ArrayList<>(assignment.length);
+        for (int i = 0; i < assignment.length; i++) {
+            int option = assignment[i];
+            int kind = kindOf(option);
+            int method = methodOf(option);
+            String orderId = orders.get(i).getOrderId();
+            long discount = discount(i, option);
+
+            if (kind == UNPAID) continue;
+
+            if (kind == CARD_PROMOTION) {
+                long cash = values[i] - discount;
+                plans.add(new PaymentPlan(orderId, registry.idOf(method), values[i], 0L, cash, discount, cash));
+            } else if (kind == FULL_POINTS) {
+                long points = values[i] - discount;
+                plans.add(new PaymentPlan(orderId, POINTS_METHOD_ID, values[i], points, 0L, discount, points));
+            } else {
+                long points = minPoints(i, option);
+                long extra = Math.min(extraPoints[method], maxPoints(i, option) - points);
+                points += extra;
+                extraPoints[method] -= extra;
+
+                long cash = due(i, option) - points;
+                String methodId = cash > 0 || points == 0 ? registry.idOf(method) : POINTS_METHOD_ID;
+                plans.add(new PaymentPlan(orderId, methodId, values[i], points, cash, discount, points + cash));
+            }
+        }
+        return plans;
+    }
+}
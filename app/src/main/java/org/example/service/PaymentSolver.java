@@ -0,0 +1,13 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentPlan;
+
+import java.util.List;
+
+// A way of choosing plans for a batch of orders within the payment method limits. Returns one plan
+// per order it could pay; orders left out stay unpaid.
+public interface PaymentSolver {
+
+    List<PaymentPlan> optimizePayments(List<Order> orders);
+}
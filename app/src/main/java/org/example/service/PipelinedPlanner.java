@@ -0,0 +1,153 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+// Reads, plans and writes at the same time: a reader thread pulls orders from the iterator, a
+// planner thread gives every order the best candidate PaymentCalculator finds in the limits left
+// by the orders before it, card promotions and points discounts included, and the calling thread
+// hands the plans to the sink and sums up the spending. Stages pass batches through bounded
+// queues, so a slow stage holds the others back and at most a few batches of orders or plans are
+// in memory. Orders are planned strictly in arrival order, without the promotion and points
+// passes of PaymentOptimizer.
+public class PipelinedPlanner {
+
+    public static final int DEFAULT_BATCH_SIZE = 1_024;
+    public static final int DEFAULT_QUEUED_BATCHES = 8;
+
+    private final PaymentMethodRegistry registry;
+    private final PaymentCalculator paymentCalculator;
+    private final int batchSize;
+    private final int queuedBatches;
+
+    public PipelinedPlanner(List<PaymentMethod> allPaymentMethods) {
+        this(new PaymentMethodRegistry(allPaymentMethods));
+    }
+
+    public PipelinedPlanner(PaymentMethodRegistry registry) {
+        this(registry, DEFAULT_BATCH_SIZE, DEFAULT_QUEUED_BATCHES);
+    }
+
+    public PipelinedPlanner(PaymentMethodRegistry registry, int batchSize, int queuedBatches) {
+        if (batchSize < 1 || queuedBatches < 1) {
+            throw new IllegalArgumentException("Batch size and queue length must be positive, got: " + batchSize + ", " + queuedBatches);
+        }
+        this.registry = registry;
+        this.paymentCalculator = new PaymentCalculator(registry);
+        this.batchSize = batchSize;
+        this.queuedBatches = queuedBatches;
+    }
+
+    // sink runs on the calling thread, in the order the orders arrived; orders without a plan are skipped
+    public SpendingSummary run(Iterator<Order> orders, Consumer<PaymentPlan> sink) {
+        BlockingQueue<List<Order>> orderBatches = new ArrayBlockingQueue<>(queuedBatches);
+        BlockingQueue<List<PaymentPlan>> planBatches = new ArrayBlockingQueue<>(queuedBatches);
+        ExecutorService stages = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> reader = stages.submit(() -> {
+                read(orders, orderBatches);
+                return null;
+            });
+            Future<?> planner = stages.submit(() -> {
+                plan(orderBatches, planBatches);
+                return null;
+            });
+
+            SpendingSummary summary = new SpendingSummary();
+            for (List<PaymentPlan> batch = take(planBatches); !batch.isEmpty(); batch = take(planBatches)) {
+                for (PaymentPlan plan : batch) {
+                    sink.accept(plan);
+                    summary.add(plan);
+                }
+            }
+            // the planner first: if it failed, the reader may still be blocked on a full queue
+            await(planner);
+            await(reader);
+            return summary;
+        } finally {
+            stages.shutdownNow();
+        }
+    }
+
+    private void read(Iterator<Order> orders, BlockingQueue<List<Order>> out) throws InterruptedException {
+        boolean completed = false;
+        try {
+            List<Order> batch = new ArrayList<>(batchSize);
+            while (orders.hasNext()) {
+                batch.add(orders.next());
+                if (batch.size() == batchSize) {
+                    out.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) out.put(batch);
+            completed = true;
+        } finally {
+            signalEnd(out, completed);
+        }
+    }
+
+    private void plan(BlockingQueue<List<Order>> in, BlockingQueue<List<PaymentPlan>> out) throws InterruptedException {
+        long[] currentLimits = registry.newLimitLedger();
+        boolean completed = false;
+        try {
+            for (List<Order> orders = take(in); !orders.isEmpty(); orders = take(in)) {
+                List<PaymentPlan> plans = new ArrayList<>(orders.size());
+                for (Order order : orders) {
+                    PaymentPlan plan = paymentCalculator.selectBestCandidate(order, registry.promotionMask(order), currentLimits);
+                    if (plan == null) {
+                        System.err.println("Warning: Could not find any payment plan for order: " + order.getOrderId() + " with current limits.");
+                        continue;
+                    }
+                    plans.add(plan);
+                    registry.charge(plan, currentLimits);
+                }
+                if (!plans.isEmpty()) out.put(plans);
+            }
+            completed = true;
+        } finally {
+            signalEnd(out, completed);
+        }
+    }
+
+    // an empty batch ends the stream; after a failure the pending batches are dropped, so the
+    // marker gets through even when nobody drains the queue any more
+    private static <T> void signalEnd(BlockingQueue<List<T>> queue, boolean completed) throws InterruptedException {
+        if (!completed) queue.clear();
+        queue.put(List.of());
+    }
+
+    private static <T> List<T> take(BlockingQueue<List<T>> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the pipeline", e);
+        }
+    }
+
+    private static void await(Future<?> stage) {
+        try {
+            stage.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the pipeline", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException("Pipeline stage failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.model.Order;
+import org.example.model.PaymentPlan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.example.service.PaymentMethodRegistry.POINTS_METHOD_ID;
+
+// Spends the PUNKTY balance as a multiple-choice knapsack: every order is either paid in full with
+// points, gets the 10% partial-points discount with the rest on a card, or is left to the later
+// passes, and the total discount is maximised. Two solutions are built and the better one is kept:
+// a greedy fill by discount per point (the LP relaxation, always available) and a dynamic program
+// over the balance in scaled units. Weights are rounded up to the unit, so the program never
+// overspends; it only runs while orders x units fit in MAX_DP_CELLS with fine enough units.
+public class PointsAllocator {
+
+    static final long MAX_DP_CELLS = 1L << 20;
+    // coarser units waste more of the balance on rounding than the greedy fill loses, which is
+    // at most one order's discount; in practice the program runs for up to ~128 orders
+    private static final long MIN_UNITS_PER_ORDER = 64;
+    private static final long TEN_PERCENT_BASIS_POINTS = 1_000L;
+    private static final int MAX_ROUNDS = 8;
+
+    private static final byte NONE = 0;
+    private static final byte FULL = 1;
+    private static final byte PARTIAL = 2;
+
+    private final PaymentMethodRegistry registry;
+
+    public PointsAllocator(PaymentMethodRegistry registry) {
+        this.registry = registry;
+    }
+
+    // plans of the orders that got points; limits are reduced by every returned plan. The knapsack
+    // only knows the largest card limit, so a partial plan whose card share no longer fits once
+    // other shares are placed is dropped, and those orders compete again for the points left
+    public List<PaymentPlan> allocate(List<Order> orders, long[] limits) {
+        List<PaymentPlan> plans = new ArrayList<>();
+        List<Order> open = orders;
+        for (int round = 0; round < MAX_ROUNDS && !open.isEmpty(); round++) {
+            long balance = registry.availablePoints(limits);
+            if (!registry.hasPointsMethod() || balance <= 0) break;
+
+            Items items = new Items(open, limits, balance);
+            byte[] choice = greedyFill(items, balance);
+            byte[] exact = dynamicProgram(items, balance);
+            if (exact != null && items.value(exact) > items.value(choice)) {
+                choice = exact;
+            }
+
+            boolean[] placed = new boolean[open.size()];
+            int dropped = commit(open, items, choice, limits, placed, plans);
+            if (dropped == 0) break;
+
+            List<Order> next = new ArrayList<>(dropped);
+            for (int i = 0; i < open.size(); i++) {
+                if (!placed[i] && choice[i] == PARTIAL) next.add(open.get(i));
+            }
+            open = next;
+        }
+        return plans;
+    }
+
+    private byte[] greedyFill(Items items, long balance) {
+        // one step per order from nothing to its first choice, and from partial to full when that
+        // upgrade still pays; steps of one order come out in that order, as their ratios decrease
+        int[] stepOrder = new int[2 * items.size];
+        byte[] stepTo = new byte[stepOrder.length];
+        long[] stepWeight = new long[stepOrder.length];
+        long[] stepValue = new long[stepOrder.length];
+        int steps = 0;
+        for (int i = 0; i < items.size; i++) {
+            boolean partial = items.partialWeight[i] > 0;
+            boolean full = items.fullValue[i] > 0;
+            if (partial && full && items.fullValue[i] > items.partialValue[i] && items.fullWeight[i] > items.partialWeight[i]
+                    && ratio(items.fullValue[i] - items.partialValue[i], items.fullWeight[i] - items.partialWeight[i])
+                    < ratio(items.partialValue[i], items.partialWeight[i])) {
+                stepOrder[steps] = i;
+                stepTo[steps] = PARTIAL;
+                stepWeight[steps] = items.partialWeight[i];
+                stepValue[steps++] = items.partialValue[i];
+                stepOrder[steps] = i;
+                stepTo[steps] = FULL;
+                stepWeight[steps] = items.fullWeight[i] - items.partialWeight[i];
+                stepValue[steps++] = items.fullValue[i] - items.partialValue[i];
+            } else if (full && (!partial || items.fullValue[i] >= items.partialValue[i])) {
+                stepOrder[steps] = i;
+                stepTo[steps] = FULL;
+                stepWeight[steps] = items.fullWeight[i];
+                stepValue[steps++] = items.fullValue[i];
+            } else if (partial) {
+                stepOrder[steps] = i;
+                stepTo[steps] = PARTIAL;
+                stepWeight[steps] = items.partialWeight[i];
+                stepValue[steps++] = items.partialValue[i];
+            }
+        }
+
+        // ratio as float bits above the inverted step index: one primitive sort, best ratio last,
+        // earlier steps first among equal ratios
+        long[] keys = new long[steps];
+        for (int step = 0; step < steps; step++) {
+            long ratioBits = Float.floatToIntBits((float) ratio(stepValue[step], stepWeight[step]));
+            keys[step] = ratioBits << 32 | (Integer.MAX_VALUE - step);
+        }
+        Arrays.sort(keys);
+
+        byte[] choice = new byte[items.size];
+        long remaining = balance;
+        for (int k = steps - 1; k >= 0; k--) {
+            int step = Integer.MAX_VALUE - (int) keys[k];
+            int i = stepOrder[step];
+            byte from = stepTo[step] == FULL && step > 0 && stepOrder[step - 1] == i ? PARTIAL : NONE;
+            if (choice[i] != from || stepWeight[step] > remaining) continue;
+            choice[i] = stepTo[step];
+            remaining -= stepWeight[step];
+        }
+        return choice;
+    }
+
+    // null when the balance cannot be scaled to a useful number of units within MAX_DP_CELLS
+    private byte[] dynamicProgram(Items items, long balance) {
+        int n = items.size;
+        long units = Math.min(balance, MAX_DP_CELLS / n - 1);
+        if (units < MIN_UNITS_PER_ORDER * n && units < balance) return null;
+
+        long unit = (balance + units - 1) / units;
+        int capacity = (int) (balance / unit);
+        int width = capacity + 1;
+        long[] best = new long[width];
+        long[] fullTaken = new long[(int) (((long) n * width + 63) >>> 6)];
+        long[] partialTaken = new long[fullTaken.length];
+
+        for (int i = 0; i < n; i++) {
+            long fullUnits = items.fullValue[i] > 0 ? (items.fullWeight[i] + unit - 1) / unit : Long.MAX_VALUE;
+            long partialUnits = items.partialWeight[i] > 0 ? (items.partialWeight[i] + unit - 1) / unit : Long.MAX_VALUE;
+            long row = (long) i * width;
+            // downwards, so both choices read the row of the previous order
+            for (int c = capacity; c >= 0; c--) {
+                long value = best[c];
+                byte taken = NONE;
+                if (fullUnits <= c && best[c - (int) fullUnits] + items.fullValue[i] > value) {
+                    value = best[c - (int) fullUnits] + items.fullValue[i];
+                    taken = FULL;
+                }
+                if (partialUnits <= c && best[c - (int) partialUnits] + items.partialValue[i] > value) {
+                    value = best[c - (int) partialUnits] + items.partialValue[i];
+                    taken = PARTIAL;
+                }
+                best[c] = value;
+                if (taken == FULL) {
+                    setBit(fullTaken, row + c);
+                } else if (taken == PARTIAL) {
+                    setBit(partialTaken, row + c);
+                }
+            }
+        }
+
+        byte[] choice = new byte[n];
+        int c = capacity;
+        for (int i = n - 1; i >= 0; i--) {
+            long cell = (long) i * width + c;
+            if (isSet(fullTaken, cell)) {
+                choice[i] = FULL;
+                c -= (int) ((items.fullWeight[i] + unit - 1) / unit);
+            } else if (isSet(partialTaken, cell)) {
+                choice[i] = PARTIAL;
+                c -= (int) ((items.partialWeight[i] + unit - 1) / unit);
+            }
+        }
+        return choice;
+    }
+
+    // number of partial plans dropped because their card share did not fit
+    private int commit(List<Order> orders, Items items, byte[] choice, long[] limits, boolean[] placed, List<PaymentPlan> plans) {
+        int pointsOrdinal = registry.getPointsOrdinal();
+        long[] partial = new long[items.size];
+        int partialCount = 0;
+        for (int i = 0; i < items.size; i++) {
+            if (choice[i] == FULL) {
+                Order order = orders.get(i);
+                plans.add(new PaymentPlan(order.getOrderId(), POINTS_METHOD_ID, order.getTotalOrderValueCents(),
+                        items.fullWeight[i], 0L, items.fullValue[i], items.fullWeight[i]));
+                limits[pointsOrdinal] -= items.fullWeight[i];
+                placed[i] = true;
+            } else if (choice[i] == PARTIAL) {
+                // card share above the order index; shares beyond 2^31 cents only tie
+                partial[partialCount++] = Math.min(items.partialCash[i], Integer.MAX_VALUE) << 32 | i;
+            }
+        }
+
+        // largest card shares first, each into the card it fits most tightly, so the big ones find room
+        Arrays.sort(partial, 0, partialCount);
+        int dropped = 0;
+        for (int k = partialCount - 1; k >= 0; k--) {
+            int i = (int) partial[k];
+            int card = tightestCard(limits, items.partialCash[i]);
+            if (card < 0) {
+                dropped++;
+                continue;
+            }
+
+            Order order = orders.get(i);
+            long points = items.partialWeight[i];
+            long cash = items.partialCash[i];
+            plans.add(new PaymentPlan(order.getOrderId(), registry.idOf(card), order.getTotalOrderValueCents(),
+                    points, cash, items.partialValue[i], points + cash));
+            limits[pointsOrdinal] -= points;
+            limits[card] -= cash;
+            placed[i] = true;
+        }
+        return dropped;
+    }
+
+    private int tightestCard(long[] limits, long cash) {
+        int tightest = -1;
+        for (long remaining = registry.cardMask(); remaining != 0; remaining &= remaining - 1) {
+            int card = Long.numberOfTrailingZeros(remaining);
+            if (limits[card] >= cash && (tightest < 0 || limits[card] < limits[tightest])) {
+                tightest = card;
+            }
+        }
+        return tightest;
+    }
+
+    private static double ratio(long value, long weight) {
+        return weight == 0 ? Double.POSITIVE_INFINITY : (double) value / weight;
+    }
+
+    private static void setBit(long[] bits, long index) {
+        bits[(int) (index >>> 6)] |= 1L << index;
+    }
+
+    private static boolean isSet(long[] bits, long index) {
+        return (bits[(int) (index >>> 6)] & 1L << index) != 0;
+    }
+
+    // points weight and discount of both choices per order, in cents; a discount of 0 marks a choice
+    // the order does not have
+    private final class Items {
+        final int size;
+        final long[] fullWeight;
+        final long[] fullValue;
+        final long[] partialWeight;
+        final long[] partialValue;
+        final long[] partialCash;
+
+        Items(List<Order> orders, long[] limits, long balance) {
+            size = orders.size();
+            fullWeight = new long[size];
+            fullValue = new long[size];
+            partialWeight = new long[size];
+            partialValue = new long[size];
+            partialCash = new long[size];
+
+            long pointsDiscount = registry.discountBasisPoints(registry.getPointsOrdinal());
+            long largestCardLimit = 0L;
+            for (long remaining = registry.cardMask(); remaining != 0; remaining &= remaining - 1) {
+                largestCardLimit = Math.max(largestCardLimit, limits[Long.numberOfTrailingZeros(remaining)]);
+            }
+
+            for (int i = 0; i < size; i++) {
+                long orderValue = orders.get(i).getTotalOrderValueCents();
+                long discount = Money.percentOf(orderValue, pointsDiscount);
+                if (orderValue - discount <= balance) {
+                    fullWeight[i] = orderValue - discount;
+                    fullValue[i] = discount;
+                }
+
+                // the split shape of PaymentCalculator: 10% of the value in points earns 10% off
+                long tenPercent = Money.percentOf(orderValue, TEN_PERCENT_BASIS_POINTS);
+                long cash = orderValue - 2 * tenPercent;
+                if (tenPercent > 0 && tenPercent <= balance && cash > 0 && cash <= largestCardLimit) {
+                    partialWeight[i] = tenPercent;
+                    partialValue[i] = tenPercent;
+                    partialCash[i] = cash;
+                }
+            }
+        }
+
+        long value(byte[] choice) {
+            long total = 0L;
+            for (int i = 0; i < size; i++) {
+                if (choice[i] == FULL) total += fullValue[i];
+                else if (choice[i] == PARTIAL) total += partialValue[i];
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.service;
+
+// How PaymentOptimizer spends PUNKTY between the card promotion pass and the remaining orders
+public enum PointsStrategy {
+    // full points payments, smallest orders first, until the balance runs out
+    SMALLEST_FIRST,
+    // PointsAllocator: full and 10% partial points payments chosen together as a knapsack
+    KNAPSACK
+}
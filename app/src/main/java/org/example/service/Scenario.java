@@ -0,0 +1,19 @@
+package org.example.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.example.model.PaymentMethod;
+
+import java.util.List;
+
+// One what-if configuration of the payment methods, e.g. another card discount or PUNKTY balance
+@AllArgsConstructor
+@Getter
+@ToString
+public class Scenario {
+
+    private String name;
+
+    private List<PaymentMethod> paymentMethods;
+}
@@ -0,0 +1,50 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Runs optimizePayments once per scenario over a single parsed order set, the scenarios in
+// parallel on the fork-join pool. Promotion masks only depend on the method ids and their order,
+// so scenarios that change discounts or limits share one mask array instead of resolving every
+// order's promotion ids again.
+public class ScenarioBatch {
+
+    private final List<Order> orders;
+    private final PointsStrategy pointsStrategy;
+    private final Map<List<String>, long[]> promotionMasksByMethodIds = new ConcurrentHashMap<>();
+
+    public ScenarioBatch(List<Order> orders) {
+        this(orders, PointsStrategy.SMALLEST_FIRST);
+    }
+
+    public ScenarioBatch(List<Order> orders, PointsStrategy pointsStrategy) {
+        this.orders = List.copyOf(orders);
+        this.pointsStrategy = pointsStrategy;
+    }
+
+    // one result per scenario, in the order of the scenarios
+    public List<ScenarioResult> run(List<Scenario> scenarios) {
+        return scenarios.parallelStream().map(this::run).toList();
+    }
+
+    private ScenarioResult run(Scenario scenario) {
+        PaymentOptimizer optimizer = new PaymentOptimizer(scenario.getPaymentMethods(), false, pointsStrategy);
+        PaymentMethodRegistry registry = optimizer.getRegistry();
+        List<String> methodIds = registry.getMethods().stream().map(PaymentMethod::getId).toList();
+        long[] promotionMasks = promotionMasksByMethodIds.computeIfAbsent(methodIds, ids -> registry.promotionMasks(orders));
+
+        long start = System.nanoTime();
+        List<PaymentPlan> plans = optimizer.optimizePayments(orders, promotionMasks, registry.newLimitLedger(), plan -> {});
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        long totalDiscountCents = plans.stream().mapToLong(PaymentPlan::getDiscountCents).sum();
+        return new ScenarioResult(scenario.getName(), optimizer.calculateSpendingSummary(plans), totalDiscountCents,
+                plans.size(), orders.size() - plans.size(), elapsed);
+    }
+}
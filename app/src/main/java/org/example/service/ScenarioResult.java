@@ -0,0 +1,27 @@
+package org.example.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+
+@AllArgsConstructor
+@Getter
+@ToString
+public class ScenarioResult {
+
+    private String name;
+
+    private Map<String, BigDecimal> spendingSummary;
+
+    private long totalDiscountCents;
+
+    private int paidOrders;
+
+    private int unpaidOrders;
+
+    private Duration elapsed;
+}
@@ -0,0 +1,38 @@
+package org.example.service;
+
+import lombok.Getter;
+import org.example.model.Money;
+import org.example.model.PaymentPlan;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.example.service.PaymentMethodRegistry.POINTS_METHOD_ID;
+
+// Spending per method, built up one plan at a time, so a run that streams its plans never needs
+// them all at once for the final summary.
+@Getter
+public class SpendingSummary {
+
+    private final Map<String, Long> spendingCents = new HashMap<>();
+    private long totalDiscountCents;
+    private long plans;
+
+    public void add(PaymentPlan plan) {
+        if (plan.getPointsAmountCents() > 0) {
+            spendingCents.merge(POINTS_METHOD_ID, plan.getPointsAmountCents(), Long::sum);
+        }
+        if (plan.getCashAmountCents() > 0) {
+            spendingCents.merge(plan.getPaymentMethodId(), plan.getCashAmountCents(), Long::sum);
+        }
+        totalDiscountCents += plan.getDiscountCents();
+        plans++;
+    }
+
+    public Map<String, BigDecimal> toBigDecimals() {
+        Map<String, BigDecimal> spendingSummary = new HashMap<>();
+        spendingCents.forEach((methodId, cents) -> spendingSummary.put(methodId, Money.toBigDecimal(cents)));
+        return spendingSummary;
+    }
+}
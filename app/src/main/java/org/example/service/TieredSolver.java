@@ -0,0 +1,205 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentPlan;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+// Picks a solver from the batch size and the latency budget: branch and bound for small batches,
+// local search for large ones, and the greedy alone when the budget is too short for either. The
+// greedy always runs next to the chosen tier as a safety net; branch and bound starts from its
+// plans, local search from its own quick assignment, so it does not wait for the greedy. When the
+// budget is up, the best finished result wins: plans within the limits first, then more orders
+// paid, then the larger discount. If nothing has finished by then, the first result to finish
+// within the budget again is taken; after that the run fails with an IllegalStateException.
+public class TieredSolver implements PaymentSolver {
+
+    public static final Duration DEFAULT_LATENCY_BUDGET = Duration.ofSeconds(1);
+    // up to about this size branch and bound keeps up with the local search in a second's budget;
+    // on larger batches the local search pulls ahead
+    public static final int DEFAULT_EXACT_MAX_ORDERS = 200;
+
+    // below this a search tier cannot do more than the greedy in time
+    private static final Duration MIN_SEARCH_BUDGET = Duration.ofMillis(50);
+    // share of the budget the search tiers leave for building the plans and handing them back
+    private static final int DEADLINE_MARGIN_DIVISOR = 10;
+
+    public enum Tier { EXACT, HEURISTIC, GREEDY }
+
+    private final PaymentOptimizer greedy;
+    private final PaymentMethodRegistry registry;
+    private final Duration latencyBudget;
+    private final int exactMaxOrders;
+    private volatile String lastWinner;
+
+    public TieredSolver(PaymentOptimizer greedy) {
+        this(greedy, DEFAULT_LATENCY_BUDGET, DEFAULT_EXACT_MAX_ORDERS);
+    }
+
+    public TieredSolver(PaymentOptimizer greedy, Duration latencyBudget, int exactMaxOrders) {
+        if (latencyBudget.isNegative() || exactMaxOrders < 0) {
+            throw new IllegalArgumentException("Latency budget and exact batch size must not be negative, got: "
+                    + latencyBudget.toMillis() + " ms, " + exactMaxOrders);
+        }
+        this.greedy = greedy;
+        this.registry = greedy.getRegistry();
+        this.latencyBudget = latencyBudget;
+        this.exactMaxOrders = exactMaxOrders;
+    }
+
+    public Tier tierFor(int orders) {
+        if (latencyBudget.compareTo(MIN_SEARCH_BUDGET) < 0) return Tier.GREEDY;
+        return orders <= exactMaxOrders ? Tier.EXACT : Tier.HEURISTIC;
+    }
+
+    // which solver produced the plans of the latest optimizePayments call, null before the first one
+    public String getLastWinner() {
+        return lastWinner;
+    }
+
+    @Override
+    public List<PaymentPlan> optimizePayments(List<Order> orders) {
+        long start = System.nanoTime();
+        long budget = latencyBudget.toNanos();
+        Tier tier = tierFor(orders.size());
+        if (tier == Tier.GREEDY) {
+            lastWinner = "greedy";
+            return greedy.optimizePayments(orders);
+        }
+
+        // daemon threads: a search that overruns the deadline must not keep the JVM alive
+        ExecutorService pool = Executors.newFixedThreadPool(2, task -> {
+            Thread thread = new Thread(task, "tiered-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<List<PaymentPlan>> finished = new ExecutorCompletionService<>(pool);
+            Future<List<PaymentPlan>> safetyNet = finished.submit(() -> greedy.optimizeQuietly(orders));
+            long searchBudget = budget - budget / DEADLINE_MARGIN_DIVISOR;
+            Future<List<PaymentPlan>> search = finished.submit(() -> tier == Tier.EXACT
+                    ? solveExactly(orders, safetyNet, start, searchBudget)
+                    : new LocalSearchImprover(registry).improve(orders, List.of(), until(start, searchBudget)).getPlans());
+
+            List<PaymentPlan> greedyPlans = null;
+            List<PaymentPlan> searched = null;
+            for (int pending = 2; pending > 0; pending--) {
+                // past the budget only what has finished counts, unless nothing has
+                boolean anyResult = greedyPlans != null || searched != null;
+                Future<List<PaymentPlan>> next = poll(finished, until(start, anyResult ? budget : 2 * budget));
+                if (next == null) break;
+                if (next == safetyNet) {
+                    greedyPlans = resultOf(safetyNet);
+                } else {
+                    searched = searchResult(search, tier);
+                }
+            }
+            if (greedyPlans == null && searched == null) {
+                throw new IllegalStateException("No solver finished within twice the latency budget of " + latencyBudget.toMillis() + " ms");
+            }
+
+            List<PaymentPlan> plans;
+            if (greedyPlans == null || searched != null && isBetter(searched, greedyPlans)) {
+                lastWinner = tier == Tier.EXACT ? "exact" : "local search";
+                plans = searched;
+            } else {
+                lastWinner = "greedy";
+                plans = greedyPlans;
+            }
+            warnUnpaid(orders, plans);
+            return plans;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // branch and bound starts from the safety net's plans, which on the batch sizes of this tier are
+    // ready long before the deadline; without them it seeds itself
+    private List<PaymentPlan> solveExactly(List<Order> orders, Future<List<PaymentPlan>> safetyNet, long start, long searchBudget)
+            throws InterruptedException {
+        List<PaymentPlan> greedyPlans;
+        try {
+            greedyPlans = safetyNet.get(until(start, searchBudget).toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            greedyPlans = List.of();
+        }
+        return new BranchAndBoundSolver(registry).solve(orders, until(start, searchBudget), greedyPlans).getPlans();
+    }
+
+    private void warnUnpaid(List<Order> orders, List<PaymentPlan> plans) {
+        if (plans.size() == orders.size()) return;
+        Set<String> paid = plans.stream().map(PaymentPlan::getOrderId).collect(Collectors.toSet());
+        System.err.println("Warning: Not all orders were processed. Unpaid order IDs: " +
+                orders.stream().map(Order::getOrderId).filter(id -> !paid.contains(id)).collect(Collectors.joining(", ")));
+    }
+
+    private boolean isBetter(List<PaymentPlan> candidate, List<PaymentPlan> incumbent) {
+        boolean candidateFits = fitsLimits(candidate);
+        if (candidateFits != fitsLimits(incumbent)) return candidateFits;
+        if (candidate.size() != incumbent.size()) return candidate.size() > incumbent.size();
+        return totalDiscount(candidate) > totalDiscount(incumbent);
+    }
+
+    private boolean fitsLimits(List<PaymentPlan> plans) {
+        long[] limits = registry.newLimitLedger();
+        for (PaymentPlan plan : plans) {
+            registry.charge(plan, limits);
+        }
+        for (long limit : limits) {
+            if (limit < 0) return false;
+        }
+        return true;
+    }
+
+    private static long totalDiscount(List<PaymentPlan> plans) {
+        return plans.stream().mapToLong(PaymentPlan::getDiscountCents).sum();
+    }
+
+    // what is left of budgetNanos counted from start
+    private static Duration until(long start, long budgetNanos) {
+        return Duration.ofNanos(Math.max(0L, budgetNanos - (System.nanoTime() - start)));
+    }
+
+    // the next finished task, null when none finishes within the timeout
+    private static Future<List<PaymentPlan>> poll(CompletionService<List<PaymentPlan>> finished, Duration timeout) {
+        try {
+            return finished.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving", e);
+        }
+    }
+
+    // the search tier failing only leaves the greedy plans
+    private static List<PaymentPlan> searchResult(Future<List<PaymentPlan>> search, Tier tier) {
+        try {
+            return resultOf(search);
+        } catch (RuntimeException e) {
+            System.err.println("Warning: The " + tier.name().toLowerCase() + " tier failed, falling back to the greedy plans: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<PaymentPlan> resultOf(Future<List<PaymentPlan>> finished) {
+        try {
+            return finished.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Solver failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppTest {
+
+    // the summary of the sample files as printed before amounts moved to cents
+    @Test
+    void sampleOutputIsUnchanged() {
+        // tests run in app/, the sample files are in the directory above
+        String output = runApp("../orders.json", "../paymentmethods.json");
+
+        Map<String, String> spending = output.lines()
+                .filter(line -> line.matches("\\S+ \\d+\\.\\d{2}"))
+                .collect(Collectors.toMap(line -> line.split(" ")[0], line -> line.split(" ")[1]));
+        assertEquals(Map.of("PUNKTY", "42.50", "BosBankrut", "190.00", "mZysk", "135.00"), spending);
+        assertTrue(output.contains("Process finished successfully."));
+    }
+
+    private static String runApp(String... args) {
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+            System.setErr(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+            App.main(args);
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+        return captured.toString(StandardCharsets.UTF_8);
+    }
+}
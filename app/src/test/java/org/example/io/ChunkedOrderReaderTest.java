@@ -0,0 +1,121 @@
+package org.example.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.example.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// every file is read with JsonDataReader.streamOrders as the reference and with ChunkedOrderReader
+// at chunk sizes from one byte (a cut after every element) up to the default
+class ChunkedOrderReaderTest {
+
+    private static final long[] CHUNK_SIZES = {1, 7, 64, 1 << 20};
+    private static final int[] THREADS = {1, 3};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void stringsWithQuotesBracesBracketsAndCommas() throws IOException {
+        Path file = write("""
+                [
+                  {"id": "A\\"{", "value": "10.00", "promotions": ["m}Zysk", "Bos[,]Bankrut"]},
+                  {"id": "B,}", "value": "20.50", "promotions": ["\\\\"]},
+                  {"id": "C\\\\\\"]", "value": "30.00"},
+                  {"id": "{[\\",", "value": "40.00", "promotions": []}
+                ]
+                """);
+
+        List<Order> expected = streamOrders(file);
+        assertEquals(List.of("A\"{", "B,}", "C\\\"]", "{[\","), expected.stream().map(Order::getOrderId).toList());
+        assertEquals(List.of("m}Zysk", "Bos[,]Bankrut"), expected.get(0).getPromotions());
+        assertSameAsStream(file);
+    }
+
+    @Test
+    void byteOrderMark() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        content.write(orders(5).getBytes(StandardCharsets.UTF_8));
+        Path file = Files.write(directory.resolve("bom.json"), content.toByteArray());
+
+        assertEquals(5, streamOrders(file).size());
+        assertSameAsStream(file);
+    }
+
+    @Test
+    void emptyArrays() throws IOException {
+        for (String json : List.of("[]", "[ ]", " [\n\t] \n")) {
+            Path file = write(json);
+            assertTrue(streamOrders(file).isEmpty());
+            assertSameAsStream(file);
+        }
+    }
+
+    @Test
+    void trailingCommaIsRejectedLikeTheStreamingReader() throws IOException {
+        Path file = write("[{\"id\": \"A\", \"value\": \"1.00\"}, {\"id\": \"B\", \"value\": \"2.00\"},\n]");
+
+        assertThrows(UncheckedIOException.class, () -> streamOrders(file));
+        for (long chunkSize : CHUNK_SIZES) {
+            assertThrows(IOException.class, () -> new ChunkedOrderReader(new JsonFactory(), 2, chunkSize).read(file));
+        }
+    }
+
+    @Test
+    void chunkBoundariesKeepEveryOrderInFileOrder() throws IOException {
+        Path file = write(orders(500));
+
+        assertEquals(500, streamOrders(file).size());
+        assertSameAsStream(file);
+    }
+
+    private void assertSameAsStream(Path file) throws IOException {
+        List<Order> expected = streamOrders(file);
+        for (long chunkSize : CHUNK_SIZES) {
+            for (int threads : THREADS) {
+                assertEquals(expected, new ChunkedOrderReader(new JsonFactory(), threads, chunkSize).read(file),
+                        "chunk size " + chunkSize + ", " + threads + " threads");
+            }
+        }
+    }
+
+    private static List<Order> streamOrders(Path file) throws IOException {
+        try (Stream<Order> orders = new JsonDataReader().streamOrders(file.toString())) {
+            return orders.toList();
+        }
+    }
+
+    // whitespace and field order vary, so cuts land next to different bytes
+    private static String orders(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(i % 3 == 0 ? ",\n  " : ",");
+            String promotions = i % 4 == 0 ? "" : ", \"promotions\": [\"mZysk\"" + (i % 2 == 0 ? ", \"BosBankrut\"" : "") + "]";
+            if (i % 5 == 0) {
+                json.append("{ \"value\": \"").append(i).append(".").append(i % 100 / 10).append("0\"").append(promotions)
+                        .append(", \"id\": \"ORDER").append(i).append("\" }");
+            } else {
+                json.append("{\"id\":\"ORDER").append(i).append("\",\"value\":\"").append(i + 1).append(".99\"").append(promotions).append("}");
+            }
+        }
+        return json.append("]\n").toString();
+    }
+
+    private Path write(String json) throws IOException {
+        return Files.writeString(Files.createTempFile(directory, "orders", ".json"), json);
+    }
+}
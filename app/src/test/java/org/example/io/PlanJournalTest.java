@@ -0,0 +1,178 @@
+package org.example.io;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+import org.example.service.PaymentMethodRegistry;
+import org.example.service.PaymentOptimizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PlanJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private List<PaymentMethod> methods;
+    private List<Order> orders;
+    private PaymentMethodRegistry registry;
+    private List<PaymentPlan> uninterrupted;
+
+    @BeforeEach
+    void setUp() {
+        methods = List.of(
+                new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("300.00")),
+                new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("900.00")),
+                new PaymentMethod("BosBankrut", new BigDecimal("5"), new BigDecimal("1200.00")),
+                new PaymentMethod("Karta", new BigDecimal("0"), new BigDecimal("2000.00")));
+        orders = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            List<String> promotions = switch (i % 4) {
+                case 0 -> List.of("mZysk");
+                case 1 -> List.of("BosBankrut");
+                case 2 -> List.of("mZysk", "BosBankrut");
+                default -> null;
+            };
+            orders.add(new Order("ORDER" + i, new BigDecimal(20 + i * 7 % 90 + ".50"), promotions));
+        }
+        registry = new PaymentMethodRegistry(methods);
+        uninterrupted = new PaymentOptimizer(methods).optimizePayments(orders);
+    }
+
+    @Test
+    void replayReturnsTheAppendedPlansAndLimits() throws IOException {
+        Path path = journalOf(uninterrupted.size());
+
+        try (PlanJournal journal = PlanJournal.resume(path, registry, orders, 1)) {
+            assertEquals(describe(uninterrupted), describe(journal.getReplayedPlans()));
+            assertEquals(List.of(), journal.unplannedOrders(orders));
+            assertArrayEquals(limitsAfter(uninterrupted), journal.remainingLimits());
+        }
+    }
+
+    @Test
+    void recordCutShortIsDroppedWithEverythingAfterIt() throws IOException {
+        long fiveRecords = Files.size(journalOf(5));
+        Path longer = journalOf(6);
+        truncate(longer, Files.size(longer) - 3);
+
+        try (PlanJournal journal = PlanJournal.resume(longer, registry, orders, 1)) {
+            assertEquals(describe(uninterrupted.subList(0, 5)), describe(journal.getReplayedPlans()));
+        }
+        assertEquals(fiveRecords, Files.size(longer));
+    }
+
+    @Test
+    void recordWithBadChecksumIsDroppedWithEverythingAfterIt() throws IOException {
+        long threeRecords = Files.size(journalOf(3));
+        Path path = journalOf(8);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // last byte of the fourth record's payload
+            long fourthEnd = Files.size(journalOf(4));
+            file.seek(fourthEnd - 1);
+            int last = file.read();
+            file.seek(fourthEnd - 1);
+            file.write(last ^ 0x01);
+        }
+
+        try (PlanJournal journal = PlanJournal.resume(path, registry, orders, 1)) {
+            assertEquals(describe(uninterrupted.subList(0, 3)), describe(journal.getReplayedPlans()));
+            assertArrayEquals(limitsAfter(uninterrupted.subList(0, 3)), journal.remainingLimits());
+        }
+        assertEquals(threeRecords, Files.size(path));
+    }
+
+    @Test
+    void zeroFilledTailOfTheRegionIsDropped() throws IOException {
+        Path path = journalOf(7);
+        long sevenRecords = Files.size(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(sevenRecords + 4096);
+        }
+
+        try (PlanJournal journal = PlanJournal.resume(path, registry, orders, 1)) {
+            assertEquals(describe(uninterrupted.subList(0, 7)), describe(journal.getReplayedPlans()));
+        }
+        assertEquals(sevenRecords, Files.size(path));
+    }
+
+    @Test
+    void journalOfOtherInputsIsRejected() throws IOException {
+        Path path = journalOf(4);
+        List<Order> otherOrders = new ArrayList<>(orders);
+        otherOrders.set(0, new Order("ORDER0", new BigDecimal("99.99"), List.of("mZysk")));
+        List<PaymentMethod> otherMethods = new ArrayList<>(methods);
+        otherMethods.set(1, new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("901.00")));
+
+        assertThrows(IOException.class, () -> PlanJournal.resume(path, registry, otherOrders, 1));
+        assertThrows(IOException.class, () -> PlanJournal.resume(path, new PaymentMethodRegistry(otherMethods), orders, 1));
+    }
+
+    // a run stopped after any number of plans and resumed the way App does it ends with the same plans
+    @Test
+    void resumedRunMatchesUninterruptedRun() throws IOException {
+        PaymentOptimizer optimizer = new PaymentOptimizer(methods);
+        for (int committed = 0; committed <= uninterrupted.size(); committed++) {
+            Path path = journalOf(committed);
+            try (PlanJournal journal = PlanJournal.resume(path, registry, orders, 1)) {
+                List<PaymentPlan> plans = new ArrayList<>(journal.getReplayedPlans());
+                plans.addAll(optimizer.optimizePayments(journal.unplannedOrders(orders), journal.remainingLimits(), plan -> {
+                    try {
+                        journal.append(plan);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                assertEquals(describe(uninterrupted), describe(plans), "resumed after " + committed + " plans");
+            }
+            try (PlanJournal journal = PlanJournal.resume(path, registry, orders, 1)) {
+                assertEquals(describe(uninterrupted), describe(journal.getReplayedPlans()));
+            }
+        }
+    }
+
+    // a closed journal holding the first plans of the uninterrupted run
+    private Path journalOf(int plans) throws IOException {
+        Path path = directory.resolve("journal-" + plans);
+        try (PlanJournal journal = PlanJournal.create(path, registry, orders, 1)) {
+            for (PaymentPlan plan : uninterrupted.subList(0, plans)) {
+                journal.append(plan);
+            }
+        }
+        return path;
+    }
+
+    private long[] limitsAfter(List<PaymentPlan> plans) throws IOException {
+        Path path = directory.resolve("limits");
+        try (PlanJournal journal = PlanJournal.create(path, registry, orders, 1)) {
+            for (PaymentPlan plan : plans) {
+                journal.append(plan);
+            }
+            return journal.remainingLimits();
+        }
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(size);
+        }
+    }
+
+    private static List<String> describe(List<PaymentPlan> plans) {
+        return plans.stream().map(PaymentPlan::toString).toList();
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void percentOfRoundsHalfToEven() {
+        // 5% of 10.10 is 0.505, 5% of 10.30 is 0.515
+        assertEquals(50L, Money.percentOf(1010L, 500L));
+        assertEquals(52L, Money.percentOf(1030L, 500L));
+        // 10% of 0.25 is 0.025, 10% of 0.35 is 0.035
+        assertEquals(2L, Money.percentOf(25L, 1_000L));
+        assertEquals(4L, Money.percentOf(35L, 1_000L));
+        // 15% of 0.50 is 0.075
+        assertEquals(8L, Money.percentOf(50L, 1_500L));
+    }
+
+    @Test
+    void percentOfRoundsToTheNearestCentAwayFromHalves() {
+        assertEquals(100L, Money.percentOf(1001L, 1_000L));
+        assertEquals(101L, Money.percentOf(1006L, 1_000L));
+        assertEquals(1_500L, Money.percentOf(10_000L, 1_500L));
+        assertEquals(0L, Money.percentOf(4L, 1_000L));
+    }
+
+    @Test
+    void fractionalPercentagesKeepTheirBasisPoints() {
+        assertEquals(1_050L, Money.toBasisPoints(new BigDecimal("10.5")));
+        assertEquals(1_525L, Money.toBasisPoints(new BigDecimal("15.25")));
+        assertEquals(1_500L, Money.toBasisPoints(new BigDecimal("15")));
+        // 7.5% of 200.00
+        assertEquals(1_500L, Money.percentOf(20_000L, Money.toBasisPoints(new BigDecimal("7.5"))));
+    }
+
+    @Test
+    void discountsWithMoreThanTwoDecimalsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Money.toBasisPoints(new BigDecimal("10.125")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PaymentMethod("mZysk", new BigDecimal("10.001"), new BigDecimal("180.00")));
+    }
+
+    @Test
+    void trailingZerosBeyondTwoDecimalsAreAccepted() {
+        assertEquals(1_000L, Money.toBasisPoints(new BigDecimal("10.000")));
+    }
+
+    @Test
+    void amountsRoundHalfToEvenToCents() {
+        assertEquals(12L, Money.toCents(new BigDecimal("0.125")));
+        assertEquals(14L, Money.toCents(new BigDecimal("0.135")));
+        assertEquals(new BigDecimal("1.05"), Money.toBigDecimal(105L));
+    }
+}
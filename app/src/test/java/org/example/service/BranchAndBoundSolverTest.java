@@ -0,0 +1,169 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.example.service.PaymentProblem.CARD_PROMOTION;
+import static org.example.service.PaymentProblem.FULL_POINTS;
+import static org.example.service.PaymentProblem.UNPAID;
+import static org.example.service.PaymentProblem.kindOf;
+import static org.example.service.PaymentProblem.methodOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BranchAndBoundSolverTest {
+
+    private static final List<PaymentMethod> METHODS = List.of(
+            new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("60.00")),
+            new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("180.00")),
+            new PaymentMethod("BosBankrut", new BigDecimal("5"), new BigDecimal("150.00")));
+
+    @Test
+    void finishedSearchFindsTheBruteForceOptimum() {
+        PaymentMethodRegistry registry = new PaymentMethodRegistry(METHODS);
+        for (int seed = 0; seed < 30; seed++) {
+            List<Order> orders = randomOrders(new Random(seed), 6);
+            PaymentProblem problem = new PaymentProblem(registry, orders);
+
+            OptimizationResult result = new BranchAndBoundSolver(registry).solve(orders, Duration.ofSeconds(10));
+
+            long optimum = bruteForceOptimum(problem);
+            assertEquals(optimum, result.getObjectiveCents(), "seed " + seed);
+            assertTrue(result.isOptimal(), "seed " + seed);
+            assertEquals(optimum, result.getUpperBoundCents(), "seed " + seed);
+            assertEquals(0L, result.getOptimalityGapCents());
+            assertEquals(0.0, result.getRelativeGap());
+            assertPlansMatch(registry, orders, result);
+        }
+    }
+
+    @Test
+    void stoppedSearchReportsAValidBoundAndGap() {
+        PaymentMethodRegistry registry = new PaymentMethodRegistry(METHODS);
+        for (int seed = 0; seed < 30; seed++) {
+            List<Order> orders = randomOrders(new Random(seed), 6);
+            long optimum = bruteForceOptimum(new PaymentProblem(registry, orders));
+
+            OptimizationResult result = new BranchAndBoundSolver(registry).solve(orders, Duration.ZERO);
+
+            assertTrue(result.getObjectiveCents() <= optimum, "seed " + seed);
+            assertTrue(result.getUpperBoundCents() >= optimum, "seed " + seed);
+            assertGapConsistent(result);
+            assertPlansMatch(registry, orders, result);
+        }
+    }
+
+    @Test
+    void largeBatchOutOfBudgetIsNoWorseThanTheGreedy() {
+        List<PaymentMethod> methods = List.of(
+                new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("2000.00")),
+                new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("9000.00")),
+                new PaymentMethod("BosBankrut", new BigDecimal("5"), new BigDecimal("8000.00")));
+        PaymentMethodRegistry registry = new PaymentMethodRegistry(methods);
+        List<Order> orders = randomOrders(new Random(7), 300);
+
+        OptimizationResult result = new BranchAndBoundSolver(registry).solve(orders, Duration.ZERO);
+
+        List<PaymentPlan> greedy = new PaymentOptimizer(methods).optimizeQuietly(orders);
+        long greedyObjective = greedy.stream().mapToLong(PaymentPlan::getDiscountCents).sum()
+                - (long) (orders.size() - greedy.size()) * new PaymentProblem(registry, orders).getUnpaidPenalty();
+        assertTrue(result.getObjectiveCents() >= greedyObjective);
+        assertGapConsistent(result);
+        assertPlansMatch(registry, orders, result);
+    }
+
+    private static void assertGapConsistent(OptimizationResult result) {
+        assertTrue(result.getUpperBoundCents() >= result.getObjectiveCents());
+        assertEquals(result.getUpperBoundCents() - result.getObjectiveCents(), result.getOptimalityGapCents());
+        assertEquals(result.getOptimalityGapCents() == 0, result.isOptimal());
+        if (!result.isOptimal() && result.getUpperBoundCents() > 0) {
+            assertEquals((double) result.getOptimalityGapCents() / result.getUpperBoundCents(), result.getRelativeGap());
+        }
+    }
+
+    // the plans fit the limits together, add up to the reported discount and leave the reported orders unpaid
+    private static void assertPlansMatch(PaymentMethodRegistry registry, List<Order> orders, OptimizationResult result) {
+        long[] limits = registry.newLimitLedger();
+        long discount = 0L;
+        for (PaymentPlan plan : result.getPlans()) {
+            assertTrue(registry.fits(plan, limits), plan::toString);
+            registry.charge(plan, limits);
+            assertEquals(plan.getTotalOrderValueCents() - plan.getDiscountCents(), plan.getFinalAmountCents(), plan::toString);
+            assertEquals(plan.getFinalAmountCents(), plan.getPointsAmountCents() + plan.getCashAmountCents(), plan::toString);
+            discount += plan.getDiscountCents();
+        }
+        assertEquals(result.getTotalDiscountCents(), discount);
+        assertEquals(orders.size() - result.getUnpaidOrders(), result.getPlans().size());
+    }
+
+    // every combination of options, feasible when the split orders on each card can share the
+    // points left after full points payments so that their cash fits next to the card promotions
+    private static long bruteForceOptimum(PaymentProblem problem) {
+        int[] assignment = new int[problem.size()];
+        return bruteForce(problem, assignment, 0);
+    }
+
+    private static long bruteForce(PaymentProblem problem, int[] assignment, int order) {
+        if (order == assignment.length) {
+            return feasible(problem, assignment) ? problem.objective(assignment) : Long.MIN_VALUE;
+        }
+        long best = Long.MIN_VALUE;
+        for (int option : problem.optionsOf(order)) {
+            assignment[order] = option;
+            best = Math.max(best, bruteForce(problem, assignment, order + 1));
+        }
+        return best;
+    }
+
+    private static boolean feasible(PaymentProblem problem, int[] assignment) {
+        PaymentMethodRegistry registry = problem.getRegistry();
+        long[] room = registry.newLimitLedger();
+        long[] due = new long[registry.size()];
+        long[] minPoints = new long[registry.size()];
+        long[] maxPoints = new long[registry.size()];
+        for (int i = 0; i < assignment.length; i++) {
+            int option = assignment[i];
+            int kind = kindOf(option);
+            int method = methodOf(option);
+            if (kind == UNPAID) continue;
+            if (kind == CARD_PROMOTION || kind == FULL_POINTS) {
+                room[method] -= problem.fixedUsage(i, option);
+            } else {
+                due[method] += problem.due(i, option);
+                minPoints[method] += problem.minPoints(i, option);
+                maxPoints[method] += problem.maxPoints(i, option);
+            }
+        }
+
+        long pointsNeeded = 0L;
+        for (int card = 0; card < room.length; card++) {
+            if (registry.isPoints(card)) continue;
+            long needed = Math.max(minPoints[card], due[card] - room[card]);
+            if (room[card] < 0 || needed > maxPoints[card]) return false;
+            pointsNeeded += needed;
+        }
+        return pointsNeeded <= registry.availablePoints(room);
+    }
+
+    private static List<Order> randomOrders(Random random, int count) {
+        List<String> cards = List.of("mZysk", "BosBankrut");
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> promotions = new ArrayList<>();
+            for (String card : cards) {
+                if (random.nextBoolean()) promotions.add(card);
+            }
+            BigDecimal value = BigDecimal.valueOf(1_000 + random.nextInt(9_000), 2);
+            orders.add(new Order("ORDER" + i, value, promotions));
+        }
+        return orders;
+    }
+}
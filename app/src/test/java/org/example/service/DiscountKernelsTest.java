@@ -0,0 +1,59 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DiscountKernelsTest {
+
+    private static final long[] BASIS_POINTS = {0L, 1L, 5L, 500L, 1_000L, 1_050L, 1_500L, 2_500L, 3_333L, 5_000L, 9_999L, 10_000L};
+
+    @Test
+    void percentOfMatchesMoneyAcrossRoundingBoundaries() {
+        // every cent up to 200.00, so each basis point rate hits exact halves from odd and even quotients
+        long[] cents = LongStream.rangeClosed(-20_000L, 20_000L).toArray();
+        for (long basisPoints : BASIS_POINTS) {
+            long[] expected = LongStream.of(cents).map(value -> Money.percentOf(value, basisPoints)).toArray();
+            assertArrayEquals(expected, DiscountKernels.percentOf(cents, basisPoints, new long[cents.length]), "basis points " + basisPoints);
+        }
+    }
+
+    @Test
+    void percentOfMatchesMoneyAtExactHalves() {
+        // 5% of 10.10 is 0.505 (down to even), 5% of 10.30 is 0.515 (up to even)
+        assertArrayEquals(new long[]{50L, 52L, -50L, -52L},
+                DiscountKernels.percentOf(new long[]{1010L, 1030L, -1010L, -1030L}, 500L, new long[4]));
+        // 0.5% of 1.00 and of 3.00 are half a cent and 1.5 cents
+        assertArrayEquals(new long[]{0L, 2L},
+                DiscountKernels.percentOf(new long[]{100L, 300L}, new long[]{50L, 50L}, new long[2]));
+    }
+
+    @Test
+    void perElementRatesMatchMoneyOnRandomValues() {
+        Random random = new Random(42);
+        int n = 100_000;
+        long[] cents = new long[n];
+        long[] basisPoints = new long[n];
+        for (int i = 0; i < n; i++) {
+            cents[i] = random.nextLong(1_000_000_000_000L);
+            basisPoints[i] = random.nextLong(10_001L);
+        }
+        long[] out = DiscountKernels.percentOf(cents, basisPoints, new long[n]);
+        for (int i = 0; i < n; i++) {
+            assertEquals(Money.percentOf(cents[i], basisPoints[i]), out[i], cents[i] + " at " + basisPoints[i]);
+        }
+    }
+
+    @Test
+    void overflowIsRejectedLikeMoney() {
+        assertThrows(ArithmeticException.class, () -> Money.percentOf(Long.MAX_VALUE / 2, 10_000L));
+        assertThrows(ArithmeticException.class,
+                () -> DiscountKernels.percentOf(new long[]{Long.MAX_VALUE / 2}, 10_000L, new long[1]));
+    }
+}
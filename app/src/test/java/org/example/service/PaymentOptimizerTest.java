@@ -0,0 +1,60 @@
+package org.example.service;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentOptimizerTest {
+
+    @Test
+    void parallelCandidatesGiveTheSequentialPlansAndCounts() {
+        for (int seed = 0; seed < 10; seed++) {
+            Random random = new Random(seed);
+            List<Order> orders = randomOrders(random, 500);
+            // limits cover about half of the batch, so later commits push them below order values
+            // and part of the speculative plans has to be generated again; quietly, as about half
+            // of the orders stays unpaid
+            List<PaymentMethod> methods = List.of(
+                    new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("5000.00")),
+                    new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("20000.00")),
+                    new PaymentMethod("BosBankrut", new BigDecimal("5"), new BigDecimal("20000.00")),
+                    new PaymentMethod("Nopromo", new BigDecimal("0"), new BigDecimal("15000.00")));
+
+            PaymentOptimizer sequential = new PaymentOptimizer(methods, false);
+            PaymentOptimizer parallel = new PaymentOptimizer(methods, true);
+            List<PaymentPlan> sequentialPlans = sequential.optimizeQuietly(orders);
+            List<PaymentPlan> parallelPlans = parallel.optimizeQuietly(orders);
+
+            assertEquals(sequentialPlans, parallelPlans, "seed " + seed);
+            assertTrue(sequentialPlans.size() < orders.size(), "seed " + seed);
+            OptimizerMetrics expected = sequential.getLastMetrics();
+            OptimizerMetrics actual = parallel.getLastMetrics();
+            assertEquals(expected.getCandidatesGenerated(), actual.getCandidatesGenerated(), "seed " + seed);
+            assertEquals(expected.getRejectedByCheck(), actual.getRejectedByCheck(), "seed " + seed);
+            assertEquals(expected.getRemainingPassPaid(), actual.getRemainingPassPaid(), "seed " + seed);
+        }
+    }
+
+    private static List<Order> randomOrders(Random random, int count) {
+        List<String> cards = List.of("mZysk", "BosBankrut");
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> promotions = new ArrayList<>();
+            for (String card : cards) {
+                if (random.nextInt(4) == 0) promotions.add(card);
+            }
+            BigDecimal value = BigDecimal.valueOf(1_000 + random.nextInt(49_000), 2);
+            orders.add(new Order("ORDER" + i, value, promotions));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.service;
+
+import org.example.model.Money;
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PointsAllocatorTest {
+
+    // more orders than this and no DP at a balance of 100.00: 2^20 / n - 1 cells < 64 * n units
+    private static final int ORDERS_WITHOUT_DP = 130;
+
+    @Test
+    void exactProgramFindsTheBruteForceOptimum() {
+        for (int seed = 0; seed < 40; seed++) {
+            Random random = new Random(seed);
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < 2 + random.nextInt(6); i++) {
+                orders.add(order("ORDER" + i, 100 + random.nextInt(30_000)));
+            }
+            long balance = random.nextInt(50_000);
+            PaymentMethodRegistry registry = registry(balance, 10_000_000L);
+            long[] limits = registry.newLimitLedger();
+
+            List<PaymentPlan> plans = new PointsAllocator(registry).allocate(orders, limits);
+
+            // a balance this small is one cent per unit, so the program is exact
+            assertEquals(bruteForceOptimum(orders, balance), totalDiscount(plans), "seed " + seed);
+            assertSpendsWithinLimits(registry, plans, limits);
+        }
+    }
+
+    @Test
+    void scaledUnitsNeverOverspend() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                orders.add(order("ORDER" + i, 1_000 + random.nextInt(500_000)));
+            }
+            // ~20k units of several hundred cents each; every weight is rounded up to whole units
+            long balance = 5_000_000L + random.nextInt(5_000_000);
+            PaymentMethodRegistry registry = registry(balance, 100_000_000L);
+            long[] limits = registry.newLimitLedger();
+
+            List<PaymentPlan> plans = new PointsAllocator(registry).allocate(orders, limits);
+
+            assertSpendsWithinLimits(registry, plans, limits);
+            assertEquals(balance - limits[registry.getPointsOrdinal()],
+                    plans.stream().mapToLong(PaymentPlan::getPointsAmountCents).sum(), "seed " + seed);
+        }
+    }
+
+    @Test
+    void scaledUnitsRoundWeightsUp() {
+        // 20970 units of 10.00 for 50 orders; each partial plan takes 4199.99 points, just under 420
+        // units. Rounded down, all 50 would seem to fit in 20950 units and overspend by 29.50
+        long balance = 20_970_000L;
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            orders.add(order("ORDER" + i, 4_199_990));
+        }
+        PaymentMethodRegistry registry = registry(balance, 200_000_000L);
+        long[] limits = registry.newLimitLedger();
+
+        List<PaymentPlan> plans = new PointsAllocator(registry).allocate(orders, limits);
+
+        assertEquals(49, plans.size());
+        assertEquals(49 * 419_999L, totalDiscount(plans));
+        assertSpendsWithinLimits(registry, plans, limits);
+    }
+
+    @Test
+    void greedyFillUpgradesAPartialPlanOnlyAfterTakingIt() {
+        // 100.00 with 15% points: partial is 10.00 for 10.00 off, full 85.00 for 15.00 off, so the
+        // upgrade costs 75.00 more for 5.00 more; every partial step comes before any upgrade
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS_WITHOUT_DP; i++) {
+            orders.add(order("ORDER" + i, 10_000));
+        }
+        long balance = ORDERS_WITHOUT_DP * 1_000L + 7_500L;
+        PaymentMethodRegistry registry = registry(balance, 10_000_000L);
+        long[] limits = registry.newLimitLedger();
+
+        List<PaymentPlan> plans = new PointsAllocator(registry).allocate(orders, limits);
+
+        assertEquals(ORDERS_WITHOUT_DP, plans.size());
+        List<PaymentPlan> full = plans.stream().filter(plan -> plan.getCashAmountCents() == 0).toList();
+        assertEquals(1, full.size());
+        assertEquals("ORDER0", full.get(0).getOrderId());
+        assertEquals(8_500L, full.get(0).getPointsAmountCents());
+        assertEquals(ORDERS_WITHOUT_DP * 1_000L + 500L, totalDiscount(plans));
+        assertEquals(0L, limits[registry.getPointsOrdinal()]);
+    }
+
+    @Test
+    void greedyFillIsUsedWhenTheBalanceIsTooLargeForTheProgram() {
+        // the 1000.00 order's partial plan takes the whole 100.00 for 100.00 off; the greedy fill
+        // takes the 100.00 order's steps first (equal ratio, earlier step) and then cannot
+        List<Order> orders = new ArrayList<>(List.of(order("SMALL", 10_000), order("LARGE", 100_000)));
+        PaymentMethodRegistry registry = registry(10_000L, 10_000_000L);
+        assertEquals(10_000L, totalDiscount(new PointsAllocator(registry).allocate(orders, registry.newLimitLedger())));
+
+        // orders too large for any points choice only make the program too big to run
+        for (int i = 0; i < ORDERS_WITHOUT_DP; i++) {
+            orders.add(order("PADDING" + i, 200_000));
+        }
+        long[] limits = registry.newLimitLedger();
+        List<PaymentPlan> plans = new PointsAllocator(registry).allocate(orders, limits);
+
+        assertEquals(List.of("SMALL"), plans.stream().map(PaymentPlan::getOrderId).toList());
+        assertEquals(1_500L, totalDiscount(plans));
+        assertSpendsWithinLimits(registry, plans, limits);
+    }
+
+    @Test
+    void droppedPartialPlansCompeteAgainForThePointsLeft() {
+        // 5% points: full costs 95.00 for 5.00 off, partial 10.00 points and 80.00 on the card for
+        // 10.00 off. Both orders go partial, but the card only takes one 80.00 share; the other order
+        // is paid in full with the 95.00 points left in the next round
+        List<Order> orders = List.of(order("ORDER1", 10_000), order("ORDER2", 10_000));
+        PaymentMethodRegistry registry = new PaymentMethodRegistry(List.of(
+                new PaymentMethod("PUNKTY", new BigDecimal("5"), Money.toBigDecimal(10_500L)),
+                new PaymentMethod("mZysk", new BigDecimal("10"), Money.toBigDecimal(9_000L))));
+        long[] limits = registry.newLimitLedger();
+
+        List<PaymentPlan> plans = new PointsAllocator(registry).allocate(orders, limits);
+
+        assertEquals(2, plans.size());
+        Map<Long, PaymentPlan> byCash = plans.stream().collect(Collectors.toMap(PaymentPlan::getCashAmountCents, Function.identity()));
+        assertEquals("mZysk", byCash.get(8_000L).getPaymentMethodId());
+        assertEquals(1_000L, byCash.get(8_000L).getPointsAmountCents());
+        assertEquals(9_500L, byCash.get(0L).getPointsAmountCents());
+        assertEquals(1_500L, totalDiscount(plans));
+        assertEquals(0L, limits[registry.getPointsOrdinal()]);
+        assertEquals(1_000L, limits[registry.ordinalOf("mZysk")]);
+    }
+
+    @Test
+    void knapsackBeatsSmallestFirstWhenPartialPlansEarnMore() {
+        // smallest first spends 34.00 of the 40.00 points on four 10.00 orders for 6.00 off; the
+        // knapsack gives both 200.00 orders the 10% partial discount for 40.00 off
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            orders.add(order("SMALL" + i, 1_000));
+        }
+        orders.add(order("LARGE1", 20_000));
+        orders.add(order("LARGE2", 20_000));
+        List<PaymentMethod> methods = List.of(
+                new PaymentMethod("PUNKTY", new BigDecimal("15"), new BigDecimal("40.00")),
+                new PaymentMethod("mZysk", new BigDecimal("10"), new BigDecimal("1000.00")));
+
+        List<PaymentPlan> smallestFirst = new PaymentOptimizer(methods, false, PointsStrategy.SMALLEST_FIRST).optimizePayments(orders);
+        List<PaymentPlan> knapsack = new PaymentOptimizer(methods, false, PointsStrategy.KNAPSACK).optimizePayments(orders);
+
+        assertEquals(orders.size(), smallestFirst.size());
+        assertEquals(orders.size(), knapsack.size());
+        assertEquals(600L, totalDiscount(smallestFirst));
+        assertEquals(4_000L, totalDiscount(knapsack));
+    }
+
+    private static PaymentMethodRegistry registry(long pointsCents, long cardCents) {
+        return new PaymentMethodRegistry(List.of(
+                new PaymentMethod("PUNKTY", new BigDecimal("15"), Money.toBigDecimal(pointsCents)),
+                new PaymentMethod("mZysk", new BigDecimal("10"), Money.toBigDecimal(cardCents))));
+    }
+
+    private static Order order(String id, long cents) {
+        return new Order(id, Money.toBigDecimal(cents), List.of());
+    }
+
+    private static long totalDiscount(List<PaymentPlan> plans) {
+        return plans.stream().mapToLong(PaymentPlan::getDiscountCents).sum();
+    }
+
+    private static void assertSpendsWithinLimits(PaymentMethodRegistry registry, List<PaymentPlan> plans, long[] limits) {
+        for (long limit : limits) {
+            assertTrue(limit >= 0, "limit overspent: " + limit);
+        }
+        long[] fresh = registry.newLimitLedger();
+        for (PaymentPlan plan : plans) {
+            assertTrue(registry.fits(plan, fresh), plan.toString());
+            registry.charge(plan, fresh);
+            assertEquals(plan.getFinalAmountCents(), plan.getPointsAmountCents() + plan.getCashAmountCents());
+        }
+    }
+
+    // every order full, partial or without points, with the single card large enough for any split
+    private static long bruteForceOptimum(List<Order> orders, long balance) {
+        return bruteForce(orders, 0, balance);
+    }
+
+    private static long bruteForce(List<Order> orders, int i, long balance) {
+        if (i == orders.size()) return 0L;
+        long value = orders.get(i).getTotalOrderValueCents();
+        long best = bruteForce(orders, i + 1, balance);
+
+        long discount = Money.percentOf(value, 1_500L);
+        if (discount > 0 && value - discount <= balance) {
+            best = Math.max(best, discount + bruteForce(orders, i + 1, balance - (value - discount)));
+        }
+        long tenPercent = Money.percentOf(value, 1_000L);
+        if (tenPercent > 0 && tenPercent <= balance && value - 2 * tenPercent > 0) {
+            best = Math.max(best, tenPercent + bruteForce(orders, i + 1, balance - tenPercent));
+        }
+        return best;
+    }
+}
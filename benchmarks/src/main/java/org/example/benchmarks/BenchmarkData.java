@@ -0,0 +1,60 @@
+package org.example.benchmarks;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.example.service.PaymentMethodRegistry.POINTS_METHOD_ID;
+
+// Seeded orders and payment methods shaped like the sample files: PUNKTY plus cardCount cards,
+// every order promoting promotionFanOut of the cards, limits covering most but not all of the batch.
+final class BenchmarkData {
+
+    private static final long SEED = 42L;
+    private static final long MIN_ORDER_CENTS = 100L;
+    private static final long MAX_ORDER_CENTS = 50_000L;
+    private static final double POINTS_SHARE = 0.15;
+    private static final double CARDS_SHARE = 0.6;
+
+    private BenchmarkData() {
+    }
+
+    static String cardId(int card) {
+        return "CARD" + card;
+    }
+
+    static List<Order> orders(int orderCount, int cardCount, int promotionFanOut) {
+        Random random = new Random(SEED);
+        List<String> cards = new ArrayList<>();
+        for (int card = 0; card < cardCount; card++) {
+            cards.add(cardId(card));
+        }
+
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            long cents = MIN_ORDER_CENTS + (long) (random.nextDouble() * (MAX_ORDER_CENTS - MIN_ORDER_CENTS));
+            Collections.shuffle(cards, random);
+            List<String> promotions = List.copyOf(cards.subList(0, Math.min(promotionFanOut, cardCount)));
+            orders.add(new Order("ORDER" + i, BigDecimal.valueOf(cents, 2), promotions));
+        }
+        return orders;
+    }
+
+    static List<PaymentMethod> paymentMethods(List<Order> orders, int cardCount) {
+        Random random = new Random(SEED);
+        long total = orders.stream().mapToLong(Order::getTotalOrderValueCents).sum();
+
+        List<PaymentMethod> methods = new ArrayList<>();
+        methods.add(new PaymentMethod(POINTS_METHOD_ID, BigDecimal.valueOf(15), BigDecimal.valueOf((long) (total * POINTS_SHARE), 2)));
+        for (int card = 0; card < cardCount; card++) {
+            long limit = (long) (total * CARDS_SHARE / cardCount);
+            methods.add(new PaymentMethod(cardId(card), BigDecimal.valueOf(1 + random.nextInt(20)), BigDecimal.valueOf(limit, 2)));
+        }
+        return methods;
+    }
+}
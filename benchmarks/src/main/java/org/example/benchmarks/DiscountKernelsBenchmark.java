@@ -0,0 +1,66 @@
+package org.example.benchmarks;
+
+import org.example.model.Money;
+import org.example.model.Order;
+import org.example.service.DiscountKernels;
+import org.example.service.OrderColumns;
+import org.example.service.PaymentMethodRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Discount and cost after discount of every order for one method: per Order versus the
+// DiscountKernels loops over an OrderColumns value column (time per order)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiscountKernelsBenchmark {
+
+    private static final int ORDERS = 100_000;
+    private static final long DISCOUNT_BASIS_POINTS = 1_500L;
+
+    private List<Order> orders;
+    private OrderColumns columns;
+    private long[] discounts;
+    private long[] costs;
+
+    @Setup
+    public void setUp() {
+        orders = BenchmarkData.orders(ORDERS, 4, 2);
+        columns = OrderColumns.of(orders, new PaymentMethodRegistry(BenchmarkData.paymentMethods(orders, 4)));
+        discounts = new long[ORDERS];
+        costs = new long[ORDERS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public long[] perOrder() {
+        for (int i = 0; i < ORDERS; i++) {
+            long value = orders.get(i).getTotalOrderValueCents();
+            discounts[i] = Money.percentOf(value, DISCOUNT_BASIS_POINTS);
+            costs[i] = value - discounts[i];
+        }
+        return costs;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public long[] columnKernels() {
+        long[] discounts = columns.discounts(DISCOUNT_BASIS_POINTS);
+        return columns.costsAfter(discounts);
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.io.JsonDataReader;
+import org.example.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Parsing throughput of an orders.json file: the generated reader into a list, databind as the
+// baseline it replaced, the streaming OrderIterator and chunked parsing on all cores
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class JsonDataReaderBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int orderCount;
+
+    private Path ordersFile;
+    private final JsonDataReader reader = new JsonDataReader();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Setup
+    public void setUp() throws IOException {
+        ordersFile = Files.createTempFile("orders", ".json");
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(ordersFile.toFile(), JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (Order order : BenchmarkData.orders(orderCount, 4, 2)) {
+                generator.writeStartObject();
+                generator.writeStringField("id", order.getOrderId());
+                generator.writeStringField("value", order.getTotalOrderValue().toPlainString());
+                generator.writeArrayFieldStart("promotions");
+                for (String promotion : order.getPromotions()) {
+                    generator.writeString(promotion);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(ordersFile);
+    }
+
+    @Benchmark
+    public List<Order> readOrders() throws IOException {
+        return reader.readOrders(ordersFile.toString());
+    }
+
+    @Benchmark
+    public List<Order> readOrdersDatabind() throws IOException {
+        return mapper.readValue(ordersFile.toFile(), new TypeReference<List<Order>>() {});
+    }
+
+    @Benchmark
+    public long streamOrders() throws IOException {
+        try (Stream<Order> orders = reader.streamOrders(ordersFile.toString())) {
+            return orders.mapToLong(Order::getTotalOrderValueCents).sum();
+        }
+    }
+
+    @Benchmark
+    public List<Order> readOrdersParallel() throws IOException {
+        return reader.readOrdersParallel(ordersFile.toString(), Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.benchmarks;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.service.PaymentCalculator;
+import org.example.service.PaymentMethodRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost of generating the plans of a single order (time and allocation per order)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentCalculatorBenchmark {
+
+    private static final int ORDERS = 1024;
+
+    @Param({"2", "8", "32"})
+    public int cardCount;
+
+    @Param({"0", "1", "4"})
+    public int promotionFanOut;
+
+    private Order[] orders;
+    private long[] promotionMasks;
+    private long[] limits;
+    private PaymentCalculator calculator;
+
+    @Setup
+    public void setUp() {
+        List<Order> orderList = BenchmarkData.orders(ORDERS, cardCount, promotionFanOut);
+        List<PaymentMethod> methods = BenchmarkData.paymentMethods(orderList, cardCount);
+        PaymentMethodRegistry registry = new PaymentMethodRegistry(methods);
+
+        orders = orderList.toArray(new Order[0]);
+        promotionMasks = registry.promotionMasks(orderList);
+        limits = registry.newLimitLedger();
+        calculator = new PaymentCalculator(registry);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void possiblePlans(Blackhole blackhole) {
+        for (int i = 0; i < orders.length; i++) {
+            blackhole.consume(calculator.generatePossiblePlans(orders[i], promotionMasks[i], limits));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void candidatePlans(Blackhole blackhole) {
+        for (int i = 0; i < orders.length; i++) {
+            blackhole.consume(calculator.generateCandidatePlans(orders[i], promotionMasks[i], limits));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void bestPlan(Blackhole blackhole) {
+        for (int i = 0; i < orders.length; i++) {
+            blackhole.consume(calculator.selectBestPlan(orders[i], promotionMasks[i], limits));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.benchmarks;
+
+import org.example.model.Order;
+import org.example.model.PaymentMethod;
+import org.example.model.PaymentPlan;
+import org.example.service.ClassGreedyOptimizer;
+import org.example.service.DualPriceOptimizer;
+import org.example.service.LazyGreedyOptimizer;
+import org.example.service.PaymentOptimizer;
+import org.example.service.PointsStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Whole-batch optimization. Large batches take seconds per call, so warm-up and measurement
+// are kept to a few iterations; narrow the parameters with -p for quick comparisons.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@State(Scope.Benchmark)
+public class PaymentOptimizerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int orderCount;
+
+    @Param({"2", "8"})
+    public int cardCount;
+
+    @Param({"1", "3"})
+    public int promotionFanOut;
+
+    @Param({"greedy", "parallel", "dual", "lazy", "knapsack", "classes"})
+    public String solver;
+
+    private List<Order> orders;
+    private List<PaymentMethod> methods;
+    private PrintStream stderr;
+
+    @Setup
+    public void setUp() {
+        orders = BenchmarkData.orders(orderCount, cardCount, promotionFanOut);
+        methods = BenchmarkData.paymentMethods(orders, cardCount);
+    }
+
+    // the optimizers list unpaid orders on stderr, which would dominate large runs
+    @Setup(Level.Iteration)
+    public void silenceWarnings() {
+        stderr = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void restoreWarnings() {
+        System.setErr(stderr);
+    }
+
+    @Benchmark
+    public List<PaymentPlan> optimizePayments() {
+        return switch (solver) {
+            case "greedy" -> new PaymentOptimizer(methods).optimizePayments(orders);
+            case "parallel" -> new PaymentOptimizer(methods, true).optimizePayments(orders);
+            case "knapsack" -> new PaymentOptimizer(methods, false, PointsStrategy.KNAPSACK).optimizePayments(orders);
+            case "dual" -> new DualPriceOptimizer(methods).optimizePayments(orders);
+            case "lazy" -> new LazyGreedyOptimizer(methods).optimizePayments(orders);
+            case "classes" -> new ClassGreedyOptimizer(methods).optimizePayments(orders);
+            default -> throw new IllegalArgumentException("Unknown solver: " + solver);
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.benchmarks;
+
+import org.example.io.PlanExportFormat;
+import org.example.io.PlanWriter;
+import org.example.model.Order;
+import org.example.model.PaymentPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Export throughput of the plan writers; the plans are built once, only encoding and I/O are measured
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class PlanWriterBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int planCount;
+
+    @Param({"jsonl", "csv", "binary"})
+    public String format;
+
+    private PaymentPlan[] plans;
+    private Path exportFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Order> orders = BenchmarkData.orders(planCount, 4, 1);
+        plans = new PaymentPlan[orders.size()];
+        for (int i = 0; i < plans.length; i++) {
+            Order order = orders.get(i);
+            long value = order.getTotalOrderValueCents();
+            long discount = value / 10;
+            plans[i] = new PaymentPlan(order.getOrderId(), order.getPromotions().get(0), value, 0L, value - discount, discount, value - discount);
+        }
+        exportFile = Files.createTempFile("plans", "." + format);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(exportFile);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        try (PlanWriter writer = PlanWriter.open(exportFile, PlanExportFormat.parse(format))) {
+            for (PaymentPlan plan : plans) {
+                writer.write(plan);
+            }
+            return writer.getPlansWritten();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Asks JsonReaderProcessor for a <Type>JsonReader next to the annotated class. The reader calls
+// the @JsonCreator constructor with the @JsonProperty fields of one JSON object, read straight
+// from a JsonParser token stream instead of through databind.
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateJsonReader {
+}
@@ -0,0 +1,218 @@
+package org.example.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Generates the JsonObjectReader of every @GenerateJsonReader class at compile time. Only the
+// constructor annotated with @JsonCreator is used, with the names of its @JsonProperty
+// parameters, so the generated reader accepts the same documents as databind does for the class
+// and unknown fields still fail. Runs next to Lombok; see annotationProcessorPaths in the
+// application pom.xml.
+@SupportedAnnotationTypes("org.example.codegen.GenerateJsonReader")
+public class JsonReaderProcessor extends AbstractProcessor {
+
+    private static final String JSON_CREATOR = "com.fasterxml.jackson.annotation.JsonCreator";
+    private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+    private static final String READER_SUFFIX = "JsonReader";
+    // locals of the generated read method that a parameter may not shadow
+    private static final Set<String> RESERVED_NAMES = Set.of("parser", "fieldName", "valueToken");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (Element element : round.getElementsAnnotatedWith(GenerateJsonReader.class)) {
+            if (element.getKind() != ElementKind.CLASS || element.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+                error(element, "@GenerateJsonReader applies to top-level classes only");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            ExecutableElement creator = findCreator(type);
+            if (creator == null) continue;
+
+            List<Property> properties = properties(creator);
+            if (properties == null) continue;
+            try {
+                write(type, properties);
+            } catch (IOException e) {
+                error(type, "Could not write " + type.getSimpleName() + READER_SUFFIX + ": " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private ExecutableElement findCreator(TypeElement type) {
+        ExecutableElement creator = null;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (annotation(constructor, JSON_CREATOR) == null) continue;
+            if (creator != null) {
+                error(constructor, "Only one @JsonCreator constructor is supported");
+                return null;
+            }
+            creator = constructor;
+        }
+        if (creator == null) {
+            error(type, "@GenerateJsonReader needs a @JsonCreator constructor");
+        } else if (!creator.getModifiers().contains(Modifier.PUBLIC)) {
+            error(creator, "The @JsonCreator constructor must be public");
+            return null;
+        }
+        return creator;
+    }
+
+    // null after reporting an error
+    private List<Property> properties(ExecutableElement creator) {
+        List<Property> properties = new ArrayList<>();
+        boolean valid = true;
+        for (VariableElement parameter : creator.getParameters()) {
+            String variable = parameter.getSimpleName().toString();
+            AnnotationMirror property = annotation(parameter, JSON_PROPERTY);
+            String field = property != null ? stringValue(property) : null;
+            String converter = converter(parameter.asType());
+            if (field == null || field.isEmpty()) {
+                error(parameter, "Every @JsonCreator parameter needs a named @JsonProperty");
+                valid = false;
+            } else if (converter == null) {
+                error(parameter, "Unsupported property type " + parameter.asType() + "; expected String, BigDecimal or List<String>");
+                valid = false;
+            } else if (RESERVED_NAMES.contains(variable)) {
+                error(parameter, "Parameter name " + variable + " clashes with the generated reader");
+                valid = false;
+            } else {
+                properties.add(new Property(field, variable, parameter.asType().toString(), converter));
+            }
+        }
+        return valid ? properties : null;
+    }
+
+    private String converter(TypeMirror type) {
+        var types = processingEnv.getTypeUtils();
+        var elements = processingEnv.getElementUtils();
+        TypeMirror string = elements.getTypeElement("java.lang.String").asType();
+        if (types.isSameType(type, string)) return "readString";
+        if (types.isSameType(type, elements.getTypeElement("java.math.BigDecimal").asType())) return "readDecimal";
+        if (types.isSameType(type, types.getDeclaredType(elements.getTypeElement("java.util.List"), string))) return "readStringList";
+        return null;
+    }
+
+    private void write(TypeElement type, List<Property> properties) throws IOException {
+        String packageName = ((PackageElement) type.getEnclosingElement()).getQualifiedName().toString();
+        String typeName = type.getSimpleName().toString();
+        String readerName = typeName + READER_SUFFIX;
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n")
+                .append("import com.fasterxml.jackson.core.JsonParser;\n")
+                .append("import com.fasterxml.jackson.core.JsonToken;\n")
+                .append("import org.example.io.JsonObjectReader;\n\n")
+                .append("import java.io.IOException;\n\n")
+                .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public class ").append(readerName).append(" extends JsonObjectReader<").append(typeName).append("> {\n\n")
+                .append("    public ").append(readerName).append("() {\n")
+                .append("        super(\"").append(words(typeName)).append("\");\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public ").append(typeName).append(" read(JsonParser parser) throws IOException {\n");
+        for (Property property : properties) {
+            source.append("        ").append(property.type).append(' ').append(property.variable).append(" = null;\n");
+        }
+        source.append("        while (parser.nextToken() == JsonToken.FIELD_NAME) {\n")
+                .append("            String fieldName = parser.currentName();\n")
+                .append("            JsonToken valueToken = parser.nextToken();\n")
+                .append("            switch (fieldName) {\n");
+        for (Property property : properties) {
+            source.append("                case \"").append(escape(property.field)).append("\" -> ")
+                    .append(property.variable).append(" = ").append(property.converter)
+                    .append("(parser, valueToken, \"").append(escape(property.field)).append("\");\n");
+        }
+        source.append("                default -> throw unrecognizedField(parser, fieldName);\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("        try {\n")
+                .append("            return new ").append(typeName).append('(');
+        for (int i = 0; i < properties.size(); i++) {
+            if (i > 0) source.append(", ");
+            source.append(properties.get(i).variable);
+        }
+        source.append(");\n")
+                .append("        } catch (IllegalArgumentException e) {\n")
+                .append("            throw invalidValue(parser, e);\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(packageName + "." + readerName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().toString().equals(annotationType)) return mirror;
+        }
+        return null;
+    }
+
+    private static String stringValue(AnnotationMirror mirror) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) return (String) entry.getValue().getValue();
+        }
+        return null;
+    }
+
+    // "PaymentMethod" -> "payment method", for error messages of the generated reader
+    private static String words(String typeName) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < typeName.length(); i++) {
+            char c = typeName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) words.append(' ');
+            words.append(Character.toLowerCase(c));
+        }
+        return words.toString();
+    }
+
+    private static String escape(String literal) {
+        return literal.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static final class Property {
+        private final String field;
+        private final String variable;
+        private final String type;
+        private final String converter;
+
+        Property(String field, String variable, String type, String converter) {
+            this.field = field;
+            this.variable = variable;
+            this.type = type;
+            this.converter = converter;
+        }
+    }
+}